@@ -1,9 +1,9 @@
 package songbox.house.client;
 
-import org.jsoup.Connection.Response;
+import songbox.house.client.http.HttpResponse;
 
 import java.io.IOException;
 
 public interface BandcampClient {
-    Response search(String searchQuery) throws IOException;
+    HttpResponse search(String searchQuery) throws IOException;
 }
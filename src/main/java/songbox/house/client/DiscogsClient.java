@@ -1,24 +1,24 @@
 package songbox.house.client;
 
-import org.jsoup.Connection.Response;
+import songbox.house.client.http.HttpResponse;
 
 public interface DiscogsClient {
-    Response getRelease(String releaseId);
+    HttpResponse getRelease(String releaseId);
 
-    Response getReleaseByLink(String discogsLink);
+    HttpResponse getReleaseByLink(String discogsLink);
 
-    Response getLabelReleases(String labelId, Integer pageNumber, Integer perPage);
+    HttpResponse getLabelReleases(String labelId, Integer pageNumber, Integer perPage);
 
-    Response getMarketplaceItem(String itemId);
+    HttpResponse getMarketplaceItem(String itemId);
 
-    Response getUserCollectionItems(String userName, Integer pageNumber, Integer perPage);
+    HttpResponse getUserCollectionItems(String userName, Integer pageNumber, Integer perPage);
 
-    Response getArtistReleases(String artistId, Integer pageNumber, Integer perPage);
+    HttpResponse getArtistReleases(String artistId, Integer pageNumber, Integer perPage);
 
-    Response searchArtwork(String searchQuery);
+    HttpResponse searchArtwork(String searchQuery);
 
-    Response search(String query);
+    HttpResponse search(String query);
 
-    Response getUserWantListItems(String userName, int pageNumber, Integer releasesPageSize);
+    HttpResponse getUserWantListItems(String userName, int pageNumber, Integer releasesPageSize);
 
 }
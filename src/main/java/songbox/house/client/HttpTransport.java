@@ -0,0 +1,24 @@
+package songbox.house.client;
+
+import songbox.house.client.http.HttpRequest;
+import songbox.house.client.http.HttpResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * HTTP GET over the shared pool of keep-alive connections
+ */
+public interface HttpTransport {
+    HttpResponse get(HttpRequest request) throws IOException;
+
+    CompletableFuture<HttpResponse> getAsync(HttpRequest request);
+
+    /**
+     * Copies the response body to {@code out} by chunks, the body is never held in memory
+     *
+     * @return count of the copied bytes
+     */
+    long download(HttpRequest request, OutputStream out) throws IOException;
+}
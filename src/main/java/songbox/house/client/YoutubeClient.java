@@ -1,12 +1,12 @@
 package songbox.house.client;
 
-import org.jsoup.Connection;
+import songbox.house.client.http.HttpResponse;
 
 import java.io.IOException;
 
 public interface YoutubeClient {
 
-    Connection.Response search(String searchQuery) throws IOException;
+    HttpResponse search(String searchQuery) throws IOException;
 
-    Connection.Response getTrackMetadata(String videoId) throws IOException;
+    HttpResponse getTrackMetadata(String videoId) throws IOException;
 }
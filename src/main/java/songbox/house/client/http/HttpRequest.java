@@ -0,0 +1,25 @@
+package songbox.house.client.http;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.Map;
+
+@Value
+@Builder
+public class HttpRequest {
+    String url;
+    @Singular
+    Map<String, String> params;
+    @Singular
+    Map<String, String> headers;
+    /**
+     * Return the response with any status instead of throwing {@link HttpStatusException} for non 2xx
+     */
+    boolean ignoreHttpErrors;
+
+    public static HttpRequestBuilder get(String url) {
+        return builder().url(url);
+    }
+}
@@ -0,0 +1,46 @@
+package songbox.house.client.http;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
+
+/**
+ * Fully read response, the connection has already been returned to the pool
+ */
+public class HttpResponse {
+    private final String url;
+    private final int statusCode;
+    private final Map<String, String> headers = new TreeMap<>(CASE_INSENSITIVE_ORDER);
+    private final String body;
+
+    public HttpResponse(String url, int statusCode, Map<String, String> headers, String body) {
+        this.url = url;
+        this.statusCode = statusCode;
+        this.headers.putAll(headers);
+        this.body = body;
+    }
+
+    public String url() {
+        return url;
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+
+    public String header(String name) {
+        return headers.get(name);
+    }
+
+    public String body() {
+        return body;
+    }
+
+    public Document parse() {
+        return Jsoup.parse(body, url);
+    }
+}
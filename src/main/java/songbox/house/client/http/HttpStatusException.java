@@ -0,0 +1,19 @@
+package songbox.house.client.http;
+
+import lombok.Getter;
+
+import java.io.IOException;
+
+import static java.text.MessageFormat.format;
+
+@Getter
+public class HttpStatusException extends IOException {
+    private final int statusCode;
+    private final String url;
+
+    public HttpStatusException(int statusCode, String url) {
+        super(format("HTTP error fetching URL, status={0}, url={1}", statusCode, url));
+        this.statusCode = statusCode;
+        this.url = url;
+    }
+}
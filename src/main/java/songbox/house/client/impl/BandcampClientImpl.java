@@ -1,20 +1,21 @@
 package songbox.house.client.impl;
 
-import org.jsoup.Connection.Response;
+import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
 import songbox.house.client.BandcampClient;
+import songbox.house.client.HttpTransport;
+import songbox.house.client.http.HttpRequest;
+import songbox.house.client.http.HttpResponse;
 
 import java.io.IOException;
 
-import static org.jsoup.Connection.Method.GET;
-import static org.jsoup.Jsoup.connect;
-
 @Component
+@AllArgsConstructor
 public class BandcampClientImpl implements BandcampClient {
+    private final HttpTransport httpTransport;
+
     @Override
-    public Response search(String searchQuery) throws IOException {
-        return connect(searchQuery)
-                .method(GET)
-                .execute();
+    public HttpResponse search(String searchQuery) throws IOException {
+        return httpTransport.get(HttpRequest.get(searchQuery).build());
     }
 }
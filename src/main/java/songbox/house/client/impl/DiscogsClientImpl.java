@@ -1,13 +1,18 @@
 package songbox.house.client.impl;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.Data;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Connection;
-import org.jsoup.Connection.Response;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import songbox.house.client.DiscogsClient;
+import songbox.house.client.HttpTransport;
+import songbox.house.client.http.HttpRequest;
+import songbox.house.client.http.HttpRequest.HttpRequestBuilder;
+import songbox.house.client.http.HttpResponse;
 import songbox.house.service.TimeService;
 
 import java.io.IOException;
@@ -21,10 +26,9 @@ import static java.text.MessageFormat.format;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static java.util.concurrent.ThreadLocalRandom.current;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
-import static org.jsoup.Connection.Method.GET;
-import static org.jsoup.Jsoup.connect;
 import static songbox.house.util.RetryUtil.getOptionalWithRetries;
 
 @Component
@@ -50,133 +54,123 @@ public class DiscogsClientImpl implements DiscogsClient {
 
     private static final String USER_AGENT = "Mozilla/5.0 (X11; U; Linux i586; en-US; rv:1.7.3) Gecko/20040924 Epiphany/1.4.4 (Ubuntu)";
 
+    private final HttpTransport httpTransport;
     private final TimeService timeService;
     private final String consumerKey;
     private final String consumerSecret;
     private final Integer discogsRetries;
+    private final Timer rateLimitSleepTimer;
 
-    public DiscogsClientImpl(final TimeService timeService,
+    public DiscogsClientImpl(final HttpTransport httpTransport, final TimeService timeService,
             @Value("${discogs.app.consumer.key}") final String consumerKey,
             @Value("${discogs.app.consumer.secret}") final String consumerSecret,
-            @Value("${discogs.client.retries}") final Integer discogsRetries) {
+            @Value("${discogs.client.retries}") final Integer discogsRetries,
+            final MeterRegistry meterRegistry) {
+        this.httpTransport = httpTransport;
         this.timeService = timeService;
         this.consumerKey = consumerKey;
         this.consumerSecret = consumerSecret;
         this.discogsRetries = discogsRetries;
+        this.rateLimitSleepTimer = meterRegistry.timer("songbox.discogs.ratelimit.sleep");
+        Gauge.builder("songbox.discogs.ratelimit.remaining", RATE_LIMIT_REMAINING, AtomicInteger::get)
+                .register(meterRegistry);
     }
 
     @Override
-    public Response getRelease(final String releaseId) {
-        final Connection connection = connect(RELEASES + releaseId)
-                .userAgent(USER_AGENT)
-                .ignoreContentType(true)
-                .ignoreHttpErrors(true)
-                .method(GET);
-
-        return executeWithRetries(connection, "GetRelease");
+    public HttpResponse getRelease(final String releaseId) {
+        final HttpRequestBuilder request = HttpRequest.get(RELEASES + releaseId)
+                .header("User-Agent", USER_AGENT)
+                .ignoreHttpErrors(true);
+
+        return executeWithRetries(request, "GetRelease");
     }
 
     @Override
-    public Response getReleaseByLink(String discogsLink) {
+    public HttpResponse getReleaseByLink(String discogsLink) {
         String url = discogsLink;
         if (!discogsLink.startsWith(WEBSITE_BASE)) {
             url = WEBSITE_BASE + discogsLink;
         }
 
-        final Connection connection = connect(url)
-                .userAgent(USER_AGENT)
-                .ignoreContentType(true)
-                .ignoreHttpErrors(true)
-                .method(Connection.Method.GET);
+        final HttpRequestBuilder request = HttpRequest.get(url)
+                .header("User-Agent", USER_AGENT)
+                .ignoreHttpErrors(true);
 
-        return executeWithRetries(connection, "GetReleaseByLink");
+        return executeWithRetries(request, "GetReleaseByLink");
     }
 
     @Override
-    public Response getLabelReleases(final String labelId, final Integer pageNumber, final Integer perPage) {
-        final Connection connection = connect(LABELS + labelId + RELEASES_SUB_PATH + "?page=" + pageNumber + "&per_page=" + perPage)
-                .userAgent(USER_AGENT)
-                .ignoreContentType(true)
-                .method(GET);
+    public HttpResponse getLabelReleases(final String labelId, final Integer pageNumber, final Integer perPage) {
+        final HttpRequestBuilder request = HttpRequest.get(LABELS + labelId + RELEASES_SUB_PATH + "?page=" + pageNumber + "&per_page=" + perPage)
+                .header("User-Agent", USER_AGENT);
 
-        return executeWithRetries(connection, "GetLabelReleases");
+        return executeWithRetries(request, "GetLabelReleases");
     }
 
     @Override
-    public Response getMarketplaceItem(final String itemId) {
-        final Connection connection = connect(MARKETPLACE_ITEM + itemId)
-                .userAgent(USER_AGENT)
-                .ignoreContentType(true)
-                .method(GET);
+    public HttpResponse getMarketplaceItem(final String itemId) {
+        final HttpRequestBuilder request = HttpRequest.get(MARKETPLACE_ITEM + itemId)
+                .header("User-Agent", USER_AGENT);
 
-        return executeWithRetries(connection, "GetMarketplaceItem");
+        return executeWithRetries(request, "GetMarketplaceItem");
     }
 
     @Override
-    public Response getUserCollectionItems(final String userName, final Integer pageNumber, final Integer perPage) {
-        final Connection connection = connect(format(USER_COLLECTION_RELEASES, userName, pageNumber, perPage))
-                .userAgent(USER_AGENT)
-                .ignoreContentType(true)
-                .ignoreHttpErrors(true)
-                .method(GET);
-
-        return executeWithRetries(connection, "GetUserCollectionItems");
+    public HttpResponse getUserCollectionItems(final String userName, final Integer pageNumber, final Integer perPage) {
+        final HttpRequestBuilder request = HttpRequest.get(format(USER_COLLECTION_RELEASES, userName, pageNumber, perPage))
+                .header("User-Agent", USER_AGENT)
+                .ignoreHttpErrors(true);
+
+        return executeWithRetries(request, "GetUserCollectionItems");
     }
 
     @Override
-    public Response getArtistReleases(String artistId, Integer pageNumber, Integer perPage) {
-        final Connection connection = connect(format(ARTIST_RELEASES, artistId, pageNumber, perPage))
-                .userAgent(USER_AGENT)
-                .ignoreContentType(true)
-                .ignoreHttpErrors(true)
-                .method(GET);
-
-        return executeWithRetries(connection, "GetArtistReleases");
+    public HttpResponse getArtistReleases(String artistId, Integer pageNumber, Integer perPage) {
+        final HttpRequestBuilder request = HttpRequest.get(format(ARTIST_RELEASES, artistId, pageNumber, perPage))
+                .header("User-Agent", USER_AGENT)
+                .ignoreHttpErrors(true);
+
+        return executeWithRetries(request, "GetArtistReleases");
     }
 
     @Override
     @SneakyThrows
-    public Response searchArtwork(final String searchQuery) {
+    public HttpResponse searchArtwork(final String searchQuery) {
         return search(searchQuery);
     }
 
     @Override
-    public Response search(String searchQuery) {
-        final Connection connection = connect(WEBSITE_SEARCH_BASE)
-                .data("type", "all")
-                .data("q", searchQuery)
-                .ignoreContentType(true)
-                .method(Connection.Method.GET);
-
-        return executeWithRetries(connection, "Search", "2");
+    public HttpResponse search(String searchQuery) {
+        final HttpRequestBuilder request = HttpRequest.get(WEBSITE_SEARCH_BASE)
+                .param("type", "all")
+                .param("q", searchQuery);
+
+        return executeWithRetries(request, "Search", "2");
     }
 
     @Override
-    public Response getUserWantListItems(String userName, int pageNumber, Integer releasesPageSize) {
-        final Connection connection = connect(format(USER_WANT_LIST, userName, pageNumber, releasesPageSize))
-                .userAgent(USER_AGENT)
-                .ignoreContentType(true)
-                .ignoreHttpErrors(true)
-                .method(GET);
-
-        return executeWithRetries(connection, "GetUserWantListItems");
+    public HttpResponse getUserWantListItems(String userName, int pageNumber, Integer releasesPageSize) {
+        final HttpRequestBuilder request = HttpRequest.get(format(USER_WANT_LIST, userName, pageNumber, releasesPageSize))
+                .header("User-Agent", USER_AGENT)
+                .ignoreHttpErrors(true);
+
+        return executeWithRetries(request, "GetUserWantListItems");
     }
 
     @SneakyThrows
-    private Response executeWithRetries(Connection connection, String... params) {
+    private HttpResponse executeWithRetries(HttpRequestBuilder request, String... params) {
         final int maxRetries = params.length >= 2 ? valueOf(params[1]) : discogsRetries;
 
-        return getOptionalWithRetries(this::execute, connection, maxRetries, "execute_discogs")
+        return getOptionalWithRetries(this::execute, request.header("Authorization", getAppAuthParams()).build(),
+                maxRetries, "execute_discogs")
                 .orElse(null);
     }
 
-    private Optional<Response> execute(Connection connection) {
+    private Optional<HttpResponse> execute(HttpRequest request) {
         try {
             checkRateLimit();
 
-            connection.header("Authorization", getAppAuthParams());
-
-            Response response = connection.execute();
+            HttpResponse response = httpTransport.get(request);
 
             final int statusCode = response.statusCode();
 
@@ -205,12 +199,13 @@ public class DiscogsClientImpl implements DiscogsClient {
                     long sleepTime = (60 - difference) * 1000;
                     log.debug("Sleeping for {} (discogs rate limiter)", sleepTime);
                     sleep(sleepTime);
+                    rateLimitSleepTimer.record(sleepTime, MILLISECONDS);
                 }
             }
         }
     }
 
-    private void updateRateLimit(Response response) {
+    private void updateRateLimit(HttpResponse response) {
         String remainingCalls = response.header("X-Discogs-Ratelimit-Remaining");
         if (isNotBlank(remainingCalls)) {
             RATE_LIMIT_REMAINING.set(valueOf(remainingCalls));
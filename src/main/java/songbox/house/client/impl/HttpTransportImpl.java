@@ -0,0 +1,196 @@
+package songbox.house.client.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import songbox.house.client.HttpTransport;
+import songbox.house.client.http.HttpRequest;
+import songbox.house.client.http.HttpResponse;
+import songbox.house.client.http.HttpStatusException;
+import songbox.house.util.ExecutorUtil;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import static java.lang.Math.min;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Apache HttpClient with the pooled persistent connections. Gzip/deflate are requested and decoded by the client.
+ */
+@Component
+public class HttpTransportImpl implements HttpTransport {
+    private static final String DEFAULT_USER_AGENT = "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_12_4) " +
+            "AppleWebKit/537.36 (KHTML, like Gecko) Chrome/53.0.2785.143 Safari/537.36";
+    private static final int VALIDATE_AFTER_INACTIVITY_MS = 2000;
+    private static final int DOWNLOAD_CHUNK_SIZE = 64 * 1024;
+
+    private final CloseableHttpClient httpClient;
+    private final ExecutorService asyncExecutorService;
+
+    public HttpTransportImpl(MeterRegistry meterRegistry,
+            @Value("${songbox.house.http.max.connections:100}") Integer maxConnections,
+            @Value("${songbox.house.http.max.connections.per.host:10}") Integer maxConnectionsPerHost,
+            @Value("${songbox.house.http.connect.timeout.ms:5000}") Integer connectTimeoutMs,
+            @Value("${songbox.house.http.read.timeout.ms:15000}") Integer readTimeoutMs,
+            @Value("${songbox.house.http.keep_alive.ms:30000}") Long keepAliveMs,
+            @Value("${songbox.house.http.async.threads:4}") Integer asyncThreads) {
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+
+        final RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                // waiting for the free connection of the host pool
+                .setConnectionRequestTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .setCookieSpec(CookieSpecs.STANDARD)
+                .build();
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(keepAliveMs))
+                .setUserAgent(DEFAULT_USER_AGENT)
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMs, MILLISECONDS)
+                .build();
+        this.asyncExecutorService = ExecutorServiceMetrics.monitor(meterRegistry,
+                ExecutorUtil.createExecutorService(asyncThreads), "http.async");
+
+        Gauge.builder("songbox.http.pool.leased", connectionManager, pool -> pool.getTotalStats().getLeased())
+                .register(meterRegistry);
+        Gauge.builder("songbox.http.pool.pending", connectionManager, pool -> pool.getTotalStats().getPending())
+                .description("Requests waiting for a free connection")
+                .register(meterRegistry);
+        Gauge.builder("songbox.http.pool.available", connectionManager, pool -> pool.getTotalStats().getAvailable())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public HttpResponse get(HttpRequest request) throws IOException {
+        final HttpGet httpGet = toHttpGet(request);
+
+        try (CloseableHttpResponse response = httpClient.execute(httpGet)) {
+            final int statusCode = response.getStatusLine().getStatusCode();
+            final String url = httpGet.getURI().toString();
+            checkStatus(request, response, url);
+
+            // reading the whole entity returns the connection to the pool
+            final HttpEntity entity = response.getEntity();
+            final String body = entity == null ? "" : EntityUtils.toString(entity, UTF_8);
+            return new HttpResponse(url, statusCode, getHeaders(response), body);
+        }
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> getAsync(HttpRequest request) {
+        return supplyAsync(() -> {
+            try {
+                return get(request);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, asyncExecutorService);
+    }
+
+    @Override
+    public long download(HttpRequest request, OutputStream out) throws IOException {
+        final HttpGet httpGet = toHttpGet(request);
+
+        try (CloseableHttpResponse response = httpClient.execute(httpGet)) {
+            checkStatus(request, response, httpGet.getURI().toString());
+            final HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                return 0;
+            }
+
+            long copied = 0;
+            final byte[] chunk = new byte[DOWNLOAD_CHUNK_SIZE];
+            try (InputStream in = entity.getContent()) {
+                int read;
+                while ((read = in.read(chunk)) != -1) {
+                    out.write(chunk, 0, read);
+                    copied += read;
+                }
+            }
+            return copied;
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        asyncExecutorService.shutdownNow();
+        httpClient.close();
+    }
+
+    private HttpGet toHttpGet(HttpRequest request) throws IOException {
+        final HttpGet httpGet = new HttpGet(toUri(request));
+        request.getHeaders().forEach(httpGet::setHeader);
+        return httpGet;
+    }
+
+    private void checkStatus(HttpRequest request, CloseableHttpResponse response, String url) throws IOException {
+        final int statusCode = response.getStatusLine().getStatusCode();
+        if (!request.isIgnoreHttpErrors() && (statusCode < 200 || statusCode >= 300)) {
+            EntityUtils.consume(response.getEntity());
+            throw new HttpStatusException(statusCode, url);
+        }
+    }
+
+    private URI toUri(HttpRequest request) throws IOException {
+        try {
+            final URIBuilder uriBuilder = new URIBuilder(request.getUrl());
+            request.getParams().forEach(uriBuilder::addParameter);
+            return uriBuilder.build();
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid url " + request.getUrl(), e);
+        }
+    }
+
+    private Map<String, String> getHeaders(CloseableHttpResponse response) {
+        final Map<String, String> headers = new HashMap<>();
+        for (Header header : response.getAllHeaders()) {
+            headers.put(header.getName(), header.getValue());
+        }
+        return headers;
+    }
+
+    /**
+     * Server keep-alive timeout if it's shorter, otherwise ours: the idle connection is closed before the server drops it
+     */
+    private ConnectionKeepAliveStrategy keepAliveStrategy(long keepAliveMs) {
+        return (response, context) -> {
+            final long serverKeepAliveMs = DefaultConnectionKeepAliveStrategy.INSTANCE
+                    .getKeepAliveDuration(response, context);
+            return serverKeepAliveMs > 0 ? min(serverKeepAliveMs, keepAliveMs) : keepAliveMs;
+        };
+    }
+}
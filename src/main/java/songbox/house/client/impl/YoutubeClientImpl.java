@@ -1,30 +1,32 @@
 package songbox.house.client.impl;
 
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.springframework.stereotype.Component;
+import songbox.house.client.HttpTransport;
 import songbox.house.client.YoutubeClient;
+import songbox.house.client.http.HttpRequest;
+import songbox.house.client.http.HttpResponse;
 
 import java.io.IOException;
 
 @Slf4j
 @Component
+@AllArgsConstructor
 public class YoutubeClientImpl implements YoutubeClient {
     private static final String SEARCH_URL = "https://www.youtube.com/results";
 
+    private final HttpTransport httpTransport;
+
     @Override
-    public Connection.Response search(String searchQuery) throws IOException {
-        return Jsoup.connect(SEARCH_URL)
-                .data("search_query", searchQuery)
-                .method(Connection.Method.GET)
-                .execute();
+    public HttpResponse search(String searchQuery) throws IOException {
+        return httpTransport.get(HttpRequest.get(SEARCH_URL)
+                .param("search_query", searchQuery)
+                .build());
     }
 
     @Override
-    public Connection.Response getTrackMetadata(String videoId) throws IOException {
-        return Jsoup.connect("https://www.320youtube.com" + videoId)
-                .method(Connection.Method.GET)
-                .execute();
+    public HttpResponse getTrackMetadata(String videoId) throws IOException {
+        return httpTransport.get(HttpRequest.get("https://www.320youtube.com" + videoId).build());
     }
 }
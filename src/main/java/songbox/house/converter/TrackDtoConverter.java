@@ -1,12 +1,34 @@
 package songbox.house.converter;
 
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
 import org.springframework.stereotype.Component;
+import songbox.house.domain.dto.DeferredContentSource;
+import songbox.house.domain.dto.LazyContentTrackDto;
+import songbox.house.domain.dto.TrackContentSource;
 import songbox.house.domain.dto.response.TrackDto;
 import songbox.house.domain.entity.Track;
 import songbox.house.domain.entity.TrackContent;
+import songbox.house.exception.NotExistsException;
+import songbox.house.repository.TrackRepository;
+import songbox.house.service.TrackContentStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import static java.text.MessageFormat.format;
+import static lombok.AccessLevel.PRIVATE;
+import static songbox.house.domain.dto.LazyContentTrackDto.contentSourceOf;
 
 @Component
+@AllArgsConstructor
+@FieldDefaults(makeFinal = true, level = PRIVATE)
 public class TrackDtoConverter implements Converter<Track, TrackDto> {
+
+    TrackContentStore trackContentStore;
+    TrackRepository trackRepository;
+
     @Override
     public Track toEntity(TrackDto dto) {
         Track track = new Track();
@@ -17,24 +39,40 @@ public class TrackDtoConverter implements Converter<Track, TrackDto> {
         track.setSizeMb(dto.getSizeBytes() / 1024. / 1024);
         track.setExtension(dto.getExtension());
         track.setFileName(dto.getFileName());
-        TrackContent content = new TrackContent();
-        content.setContent(dto.getContent());
-        track.setContent(content);
+        track.setArtworkUrl(dto.getArtworkUrl());
+        track.setContent(putContent(dto));
         return track;
     }
 
     @Override
     public TrackDto toDto(Track entity) {
-        TrackDto dto = new TrackDto();
+        final long sizeBytes = Double.valueOf(entity.getSizeMb() * 1024 * 1024).longValue();
+        TrackDto dto = new LazyContentTrackDto(getContentSource(entity.getTrackId()), sizeBytes);
         //TODO maybe need parse authors
         dto.setArtists(entity.getAuthorsStr());
         dto.setTitle(entity.getTitle());
         dto.setBitRate(entity.getBitRate());
         dto.setDurationSec(entity.getDuration());
-        dto.setSizeBytes(Double.valueOf(entity.getSizeMb() * 1024 * 1024).longValue());
         dto.setExtension(entity.getExtension());
         dto.setFileName(entity.getFileName());
-        dto.setContent(entity.getContent().getContent());
+        dto.setArtworkUrl(entity.getArtworkUrl());
         return dto;
     }
+
+    /**
+     * The content row isn't read until the consumer needs the bytes
+     */
+    private TrackContentSource getContentSource(Long trackId) {
+        return new DeferredContentSource(() -> trackRepository.findContentByTrackId(trackId)
+                .map(trackContentStore::open)
+                .orElseThrow(() -> new NotExistsException(format("Content of track {0} not exists!", trackId))));
+    }
+
+    private TrackContent putContent(TrackDto dto) {
+        try (InputStream in = contentSourceOf(dto).openStream()) {
+            return trackContentStore.put(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
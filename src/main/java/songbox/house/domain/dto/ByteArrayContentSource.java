@@ -0,0 +1,27 @@
+package songbox.house.domain.dto;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+public class ByteArrayContentSource implements TrackContentSource {
+
+    private final byte[] content;
+
+    public ByteArrayContentSource(byte[] content) {
+        this.content = content != null ? content : new byte[0];
+    }
+
+    @Override
+    public InputStream openStream() {
+        return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public long getLength() {
+        return content.length;
+    }
+
+    @Override
+    public void release() {
+    }
+}
@@ -0,0 +1,48 @@
+package songbox.house.domain.dto;
+
+import com.google.common.base.Supplier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+
+import static com.google.common.base.Suppliers.memoize;
+
+/**
+ * Resolves the source only when the content is read for the first time
+ */
+public class DeferredContentSource implements TrackContentSource {
+
+    private final Supplier<TrackContentSource> source;
+    private volatile boolean resolved;
+
+    public DeferredContentSource(Supplier<TrackContentSource> source) {
+        this.source = memoize(() -> {
+            final TrackContentSource contentSource = source.get();
+            resolved = true;
+            return contentSource;
+        });
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        return source.get().openStream();
+    }
+
+    @Override
+    public long getLength() {
+        return source.get().getLength();
+    }
+
+    @Override
+    public long transferTo(WritableByteChannel target) throws IOException {
+        return source.get().transferTo(target);
+    }
+
+    @Override
+    public void release() {
+        if (resolved) {
+            source.get().release();
+        }
+    }
+}
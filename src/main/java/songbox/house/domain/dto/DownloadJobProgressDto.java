@@ -0,0 +1,25 @@
+package songbox.house.domain.dto;
+
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import songbox.house.domain.entity.DownloadJobStatus;
+
+import java.util.Date;
+
+import static lombok.AccessLevel.PRIVATE;
+
+@Data
+@FieldDefaults(level = PRIVATE)
+public class DownloadJobProgressDto {
+    Long jobId;
+    String name;
+    DownloadJobStatus status;
+    Date createdAt;
+    Date finishedAt;
+    long total;
+    // waiting and being downloaded
+    long pending;
+    long downloaded;
+    long notFound;
+    long failed;
+}
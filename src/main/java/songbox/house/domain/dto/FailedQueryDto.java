@@ -0,0 +1,18 @@
+package songbox.house.domain.dto;
+
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import static lombok.AccessLevel.PRIVATE;
+
+@Data
+@FieldDefaults(level = PRIVATE)
+public class FailedQueryDto {
+    Long userId;
+    Long searchReprocessId;
+    String query;
+    // 0 for the query from the failed queries topic, otherwise the number of the retry topic
+    Integer retry;
+    // epoch millis, null means now
+    Long notBefore;
+}
@@ -0,0 +1,68 @@
+package songbox.house.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.io.ByteStreams;
+import songbox.house.domain.dto.response.TrackDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Track which content is read from the source only by the consumers which need the bytes
+ */
+public class LazyContentTrackDto extends TrackDto {
+
+    private final TrackContentSource contentSource;
+
+    public LazyContentTrackDto(TrackContentSource contentSource) {
+        this(contentSource, contentSource.getLength());
+    }
+
+    /**
+     * Doesn't ask the source for the length, so {@link DeferredContentSource} stays not resolved
+     */
+    public LazyContentTrackDto(TrackContentSource contentSource, long sizeBytes) {
+        this.contentSource = contentSource;
+        setSizeBytes(sizeBytes);
+    }
+
+    @JsonIgnore
+    public TrackContentSource getContentSource() {
+        return contentSource;
+    }
+
+    /**
+     * Content of any track as the source, the bytes of the not lazy track are wrapped
+     */
+    public static TrackContentSource contentSourceOf(TrackDto trackDto) {
+        return trackDto instanceof LazyContentTrackDto
+                ? ((LazyContentTrackDto) trackDto).getContentSource()
+                : new ByteArrayContentSource(trackDto.getContent());
+    }
+
+    /**
+     * Releases the content source of the lazy track, if nobody is going to read the content anymore
+     */
+    public static void release(TrackDto trackDto) {
+        if (trackDto instanceof LazyContentTrackDto) {
+            ((LazyContentTrackDto) trackDto).getContentSource().release();
+        }
+    }
+
+    /**
+     * Reads the whole content, {@link #getContentSource()} should be used where possible
+     */
+    @Override
+    public byte[] getContent() {
+        final byte[] content = super.getContent();
+        if (content != null) {
+            return content;
+        }
+        try (InputStream in = contentSource.openStream()) {
+            return ByteStreams.toByteArray(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package songbox.house.domain.dto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import static com.google.common.io.ByteStreams.copy;
+
+/**
+ * Track audio which is read by streams, not held in memory
+ */
+public interface TrackContentSource {
+    InputStream openStream() throws IOException;
+
+    long getLength();
+
+    /**
+     * @return count of the transferred bytes
+     */
+    default long transferTo(WritableByteChannel target) throws IOException {
+        try (InputStream in = openStream()) {
+            return copy(Channels.newChannel(in), target);
+        }
+    }
+
+    /**
+     * The source can't be read after the release
+     */
+    void release();
+}
@@ -0,0 +1,37 @@
+package songbox.house.domain.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import java.util.Date;
+
+import static javax.persistence.GenerationType.AUTO;
+import static javax.persistence.TemporalType.TIMESTAMP;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "ARTWORK")
+@NoArgsConstructor
+public class Artwork {
+    @Id
+    @GeneratedValue(strategy = AUTO)
+    @Column
+    Long id;
+    @Column(nullable = false, unique = true)
+    String searchKey;
+    @Column(nullable = false, length = 1024)
+    String url;
+    @CreationTimestamp
+    @Temporal(TIMESTAMP)
+    @Column
+    Date createdAt;
+}
@@ -0,0 +1,55 @@
+package songbox.house.domain.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import java.util.Date;
+
+import static javax.persistence.EnumType.STRING;
+import static javax.persistence.GenerationType.AUTO;
+import static javax.persistence.TemporalType.TIMESTAMP;
+import static songbox.house.domain.entity.DownloadJobStatus.IN_PROGRESS;
+
+/**
+ * Bulk download, the tracks are downloaded by {@link DownloadTask}s
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "DOWNLOAD_JOB", indexes = {
+        @Index(name = "DOWNLOAD_JOB_OWNER_IDX", columnList = "ownerId")
+})
+@NoArgsConstructor
+public class DownloadJob {
+    @Id
+    @GeneratedValue(strategy = AUTO)
+    @Column
+    Long id;
+    @Column(nullable = false)
+    String name;
+    @Column(nullable = false)
+    Long ownerId;
+    @Column
+    @Enumerated(STRING)
+    DownloadJobStatus status = IN_PROGRESS;
+    // the job isn't finished while the tasks are added
+    @Column
+    Boolean allTasksAdded = false;
+    @CreationTimestamp
+    @Temporal(TIMESTAMP)
+    @Column
+    Date createdAt;
+    @Temporal(TIMESTAMP)
+    @Column
+    Date finishedAt;
+}
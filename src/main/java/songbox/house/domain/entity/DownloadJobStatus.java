@@ -0,0 +1,5 @@
+package songbox.house.domain.entity;
+
+public enum DownloadJobStatus {
+    IN_PROGRESS, PAUSED, FINISHED
+}
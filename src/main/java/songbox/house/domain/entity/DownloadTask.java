@@ -0,0 +1,72 @@
+package songbox.house.domain.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import java.util.Date;
+
+import static javax.persistence.EnumType.STRING;
+import static javax.persistence.GenerationType.AUTO;
+import static javax.persistence.TemporalType.TIMESTAMP;
+import static songbox.house.domain.entity.DownloadTaskStatus.PENDING;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "DOWNLOAD_TASK", indexes = {
+        // progress of the job
+        @Index(name = "DOWNLOAD_TASK_JOB_STATUS_IDX", columnList = "jobId, status"),
+        // due tasks to claim
+        @Index(name = "DOWNLOAD_TASK_STATUS_NEXT_ATTEMPT_IDX", columnList = "status, nextAttemptAt")
+})
+@NoArgsConstructor
+public class DownloadTask {
+    @Id
+    @GeneratedValue(strategy = AUTO)
+    @Column
+    Long id;
+    @Column(nullable = false)
+    Long jobId;
+    @Column(nullable = false)
+    Long ownerId;
+    @Column
+    String artists;
+    @Column
+    String title;
+    @Column
+    Long collectionId;
+    @Column
+    String genres;
+    @Column
+    Boolean only320 = false;
+    @Column
+    @Enumerated(STRING)
+    DownloadTaskStatus status = PENDING;
+    @Column
+    Integer retries = 0;
+    // null means due
+    @Temporal(TIMESTAMP)
+    @Column
+    Date nextAttemptAt;
+    // the claim of the node which has stopped expires, so the task is claimed again
+    @Temporal(TIMESTAMP)
+    @Column
+    Date claimedUntil;
+    // changes with every claim, so only the last claimer completes the task
+    @Column(length = 36)
+    String claimToken;
+    @UpdateTimestamp
+    @Temporal(TIMESTAMP)
+    @Column
+    Date updatedAt;
+}
@@ -0,0 +1,5 @@
+package songbox.house.domain.entity;
+
+public enum DownloadTaskStatus {
+    PENDING, CLAIMED, DOWNLOADED, NOT_FOUND, FAILED
+}
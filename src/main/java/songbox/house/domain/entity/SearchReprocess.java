@@ -11,6 +11,7 @@ import javax.persistence.Entity;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import java.util.Date;
@@ -23,7 +24,10 @@ import static songbox.house.domain.entity.SearchReprocessStatus.NOT_FOUND;
 @Getter
 @Setter
 @Entity
-@Table(name = "SEARCH_REPROCESS")
+@Table(name = "SEARCH_REPROCESS", indexes = {
+        // due searches of the user by status in the keyset order
+        @Index(name = "SEARCH_REPROCESS_USER_STATUS_DUE_IDX", columnList = "userId, status, nextAttemptAt, id")
+})
 @NoArgsConstructor
 public class SearchReprocess {
     @Id
@@ -38,6 +42,11 @@ public class SearchReprocess {
     Long collectionId;
     @Column
     Integer retries = 0;
+    // the creation time until the first attempt, always set by the app. The column is nullable for the rows created
+    // before it, they are filled from createdAt on the start.
+    @Temporal(TIMESTAMP)
+    @Column
+    Date nextAttemptAt;
     @CreationTimestamp
     @Temporal(TIMESTAMP)
     @Column
@@ -0,0 +1,37 @@
+package songbox.house.domain.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import java.util.Date;
+
+import static javax.persistence.TemporalType.TIMESTAMP;
+
+/**
+ * Which node reprocesses the user searches in the scheduled run
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "SEARCH_REPROCESS_LEASE")
+@NoArgsConstructor
+public class SearchReprocessLease {
+    @Id
+    @Column
+    Long userId;
+    @Column(nullable = false)
+    String runId;
+    @Column(nullable = false)
+    String owner;
+    @Temporal(TIMESTAMP)
+    @Column(nullable = false)
+    Date leasedUntil;
+    @Column(nullable = false)
+    Boolean done = false;
+}
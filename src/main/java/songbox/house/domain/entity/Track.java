@@ -82,6 +82,9 @@ public class Track implements Serializable {
     @Column
     private String extension;
 
+    @Column(length = 1024)
+    private String artworkUrl;
+
 //    private Album album;
 
     @Column
@@ -19,6 +19,18 @@ public class TrackContent {
     @Column
     private Long id;
 
+    /**
+     * Only the tracks saved before the {@code TrackContentStore} keep the content in the database
+     */
     @Type(type = "org.hibernate.type.BinaryType")
     private byte[] content;
+
+    /**
+     * SHA-256 of the content in the {@code TrackContentStore}
+     */
+    @Column(length = 64)
+    private String hash;
+
+    @Column
+    private Long length;
 }
@@ -0,0 +1,118 @@
+package songbox.house.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.core.ResolvableType;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import songbox.house.util.ExecutorUtil;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.springframework.transaction.support.TransactionSynchronizationManager.isSynchronizationActive;
+import static org.springframework.transaction.support.TransactionSynchronizationManager.registerSynchronization;
+
+/**
+ * {@link AsyncBatchedEvent}s are dispatched to the listeners after the commit of the publishing transaction (and are
+ * dropped on the rollback) on the bounded executor, the events waiting for the dispatch are merged by the batch key.
+ * If the executor queue is full or the executor is shut down, the publishing thread dispatches the event. Other
+ * events are dispatched as usual.
+ */
+@Slf4j
+public class AfterCommitEventMulticaster extends SimpleApplicationEventMulticaster implements DisposableBean {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final ConcurrentMap<Object, ApplicationEvent> pending = new ConcurrentHashMap<>();
+
+    public AfterCommitEventMulticaster(int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, ExecutorUtil.createExecutorService(threads),
+                "events");
+        this.permits = new Semaphore(threads + queueCapacity);
+    }
+
+    @Override
+    public void multicastEvent(ApplicationEvent event, ResolvableType eventType) {
+        if (!(event instanceof AsyncBatchedEvent)) {
+            super.multicastEvent(event, eventType);
+            return;
+        }
+
+        if (isSynchronizationActive()) {
+            registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event, eventType);
+                }
+            });
+        } else {
+            enqueue(event, eventType);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, SECONDS)) {
+                log.warn("Events are still dispatched after {}s of the shutdown", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // the executor doesn't take new tasks, so the events left here are dispatched by nobody else
+        pending.keySet().forEach(batchKey -> {
+            log.info("Dispatching event with the batch key {} on the shutdown", batchKey);
+            dispatch(batchKey, null);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void enqueue(ApplicationEvent event, ResolvableType eventType) {
+        final Object batchKey = ((AsyncBatchedEvent) event).getBatchKey();
+        final boolean[] merged = {false};
+        pending.merge(batchKey, event, (waiting, next) -> {
+            merged[0] = true;
+            return (ApplicationEvent) ((AsyncBatchedEvent) waiting).merge((AsyncBatchedEvent) next);
+        });
+        if (merged[0]) {
+            log.debug("Merged event {} with the waiting one", event);
+            return;
+        }
+
+        if (!permits.tryAcquire()) {
+            dispatch(batchKey, eventType);
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    dispatch(batchKey, eventType);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            dispatch(batchKey, eventType);
+        }
+    }
+
+    private void dispatch(Object batchKey, ResolvableType eventType) {
+        final ApplicationEvent batch = pending.remove(batchKey);
+        if (batch != null) {
+            super.multicastEvent(batch, eventType);
+        }
+    }
+}
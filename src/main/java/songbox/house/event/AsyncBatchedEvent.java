@@ -0,0 +1,11 @@
+package songbox.house.event;
+
+/**
+ * Event dispatched asynchronously after the commit. Events with the same batch key, which are waiting for the
+ * dispatch, are merged into one.
+ */
+public interface AsyncBatchedEvent<E extends AsyncBatchedEvent<E>> {
+    Object getBatchKey();
+
+    E merge(E next);
+}
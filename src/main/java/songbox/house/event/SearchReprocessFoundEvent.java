@@ -4,9 +4,11 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.springframework.context.ApplicationEvent;
 import songbox.house.domain.dto.SearchReprocessResultDto;
 
+import java.util.HashMap;
 import java.util.Map;
 
-public class SearchReprocessFoundEvent extends ApplicationEvent {
+public class SearchReprocessFoundEvent extends ApplicationEvent
+        implements AsyncBatchedEvent<SearchReprocessFoundEvent> {
 
     private final Long userId;
     private final Map<Long, SearchReprocessResultDto> reprocessResultIdToReprocessResultMap;
@@ -26,6 +28,18 @@ public class SearchReprocessFoundEvent extends ApplicationEvent {
         return reprocessResultIdToReprocessResultMap;
     }
 
+    @Override
+    public Object getBatchKey() {
+        return userId;
+    }
+
+    @Override
+    public SearchReprocessFoundEvent merge(SearchReprocessFoundEvent next) {
+        final Map<Long, SearchReprocessResultDto> merged = new HashMap<>(reprocessResultIdToReprocessResultMap);
+        merged.putAll(next.getReprocessResultIdToReprocessResultMap());
+        return new SearchReprocessFoundEvent(getSource(), userId, merged);
+    }
+
     @Override
     public String toString() {
         return new ToStringBuilder(this)
@@ -0,0 +1,22 @@
+package songbox.house.infrastructure;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import songbox.house.event.AfterCommitEventMulticaster;
+
+import static org.springframework.context.support.AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME;
+
+@Configuration
+public class EventsConfig {
+
+    @Bean(name = APPLICATION_EVENT_MULTICASTER_BEAN_NAME)
+    public ApplicationEventMulticaster applicationEventMulticaster(
+            @Value("${songbox.house.events.threads:2}") Integer threads,
+            @Value("${songbox.house.events.queue:1000}") Integer queueCapacity,
+            MeterRegistry meterRegistry) {
+        return new AfterCommitEventMulticaster(threads, queueCapacity, meterRegistry);
+    }
+}
@@ -22,6 +22,7 @@ import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
 import songbox.house.service.KafkaConsumer;
 import songbox.house.service.KafkaService;
 import songbox.house.service.impl.KafkaServiceImpl;
+import songbox.house.service.search.FailedQueryReprocessService;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -33,6 +34,9 @@ import static org.apache.kafka.clients.consumer.ConsumerConfig.KEY_DESERIALIZER_
 import static org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG;
 import static org.apache.kafka.clients.producer.ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG;
 import static org.apache.kafka.clients.producer.ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG;
+import static songbox.house.service.KafkaConsumer.FAILED_QUERIES_RETRY_1D_TOPIC_NAME;
+import static songbox.house.service.KafkaConsumer.FAILED_QUERIES_RETRY_1H_TOPIC_NAME;
+import static songbox.house.service.KafkaConsumer.FAILED_QUERIES_RETRY_5M_TOPIC_NAME;
 import static songbox.house.service.KafkaConsumer.FAILED_QUERIES_TOPIC_NAME;
 
 @Configuration
@@ -89,8 +93,23 @@ public class KafkaConfig {
     }
 
     @Bean
-    public KafkaConsumer kafkaConsumer() {
-        return new KafkaConsumer();
+    public NewTopic failedQueriesRetry5m() {
+        return new NewTopic(FAILED_QUERIES_RETRY_5M_TOPIC_NAME, 1, (short) 1);
+    }
+
+    @Bean
+    public NewTopic failedQueriesRetry1h() {
+        return new NewTopic(FAILED_QUERIES_RETRY_1H_TOPIC_NAME, 1, (short) 1);
+    }
+
+    @Bean
+    public NewTopic failedQueriesRetry1d() {
+        return new NewTopic(FAILED_QUERIES_RETRY_1D_TOPIC_NAME, 1, (short) 1);
+    }
+
+    @Bean
+    public KafkaConsumer kafkaConsumer(FailedQueryReprocessService failedQueryReprocessService) {
+        return new KafkaConsumer(failedQueryReprocessService);
     }
 
     @Bean
@@ -10,7 +10,7 @@ import songbox.house.service.KafkaService;
 public class KafkaDummyConfig {
     @Bean
     public KafkaService kafkaService() {
-        return query -> {
+        return failedQuery -> {
         };
     }
 }
@@ -0,0 +1,12 @@
+package songbox.house.repository;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import songbox.house.domain.entity.Artwork;
+
+import java.util.Optional;
+
+@Repository
+public interface ArtworkRepository extends CrudRepository<Artwork, Long> {
+    Optional<Artwork> findBySearchKey(String searchKey);
+}
@@ -0,0 +1,41 @@
+package songbox.house.repository;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import songbox.house.domain.entity.DownloadJob;
+import songbox.house.domain.entity.DownloadJobStatus;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface DownloadJobRepository extends CrudRepository<DownloadJob, Long> {
+
+    List<DownloadJob> findByOwnerIdOrderByCreatedAtDesc(Long ownerId);
+
+    @Modifying
+    @Query("update DownloadJob j set j.allTasksAdded = true where j.id = :id")
+    void setAllTasksAdded(@Param("id") Long id);
+
+    @Modifying
+    @Query("update DownloadJob j set j.status = :status where j.id = :id and j.status = :expected")
+    int setStatus(@Param("id") Long id, @Param("expected") DownloadJobStatus expected,
+            @Param("status") DownloadJobStatus status);
+
+    /**
+     * Finishes the jobs which have all the tasks added and processed
+     *
+     * @return count of the finished jobs
+     */
+    @Modifying
+    @Query("update DownloadJob j set j.status = songbox.house.domain.entity.DownloadJobStatus.FINISHED, " +
+            "j.finishedAt = :now " +
+            "where j.status <> songbox.house.domain.entity.DownloadJobStatus.FINISHED and j.allTasksAdded = true " +
+            "and not exists (select t.id from DownloadTask t where t.jobId = j.id and t.status in (" +
+            "songbox.house.domain.entity.DownloadTaskStatus.PENDING, " +
+            "songbox.house.domain.entity.DownloadTaskStatus.CLAIMED))")
+    int finishDone(@Param("now") Date now);
+}
@@ -0,0 +1,74 @@
+package songbox.house.repository;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import songbox.house.domain.entity.DownloadTask;
+import songbox.house.domain.entity.DownloadTaskStatus;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface DownloadTaskRepository extends CrudRepository<DownloadTask, Long> {
+
+    /**
+     * Locks the due tasks of the jobs in progress and the tasks which claim has expired. The tasks locked by the
+     * other nodes are skipped.
+     */
+    @Query(nativeQuery = true, value = "select t.\"ID\" from \"DOWNLOAD_TASK\" t " +
+            "join \"DOWNLOAD_JOB\" j on j.\"ID\" = t.\"JOB_ID\" " +
+            "where j.\"STATUS\" = 'IN_PROGRESS' " +
+            "and ((t.\"STATUS\" = 'PENDING' and (t.\"NEXT_ATTEMPT_AT\" is null or t.\"NEXT_ATTEMPT_AT\" <= :now)) " +
+            "or (t.\"STATUS\" = 'CLAIMED' and t.\"CLAIMED_UNTIL\" < :now)) " +
+            "order by t.\"ID\" limit :limit for update of t skip locked")
+    List<Number> lockDue(@Param("now") Date now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update DownloadTask t set t.status = songbox.house.domain.entity.DownloadTaskStatus.CLAIMED, " +
+            "t.claimedUntil = :claimedUntil, t.claimToken = :claimToken where t.id in (:ids)")
+    void setClaimed(@Param("claimedUntil") Date claimedUntil, @Param("claimToken") String claimToken,
+            @Param("ids") Collection<Long> ids);
+
+    /**
+     * @return 0 if the claim has been taken again since
+     */
+    @Modifying
+    @Query("update DownloadTask t set t.claimedUntil = :claimedUntil " +
+            "where t.id = :id and t.status = songbox.house.domain.entity.DownloadTaskStatus.CLAIMED " +
+            "and t.claimToken = :claimToken")
+    int renewClaim(@Param("id") Long id, @Param("claimToken") String claimToken,
+            @Param("claimedUntil") Date claimedUntil);
+
+    @Modifying
+    @Query("update DownloadTask t set t.status = :status, t.claimedUntil = null, t.claimToken = null " +
+            "where t.id = :id and t.status = songbox.house.domain.entity.DownloadTaskStatus.CLAIMED " +
+            "and t.claimToken = :claimToken")
+    int complete(@Param("id") Long id, @Param("claimToken") String claimToken,
+            @Param("status") DownloadTaskStatus status);
+
+    @Modifying
+    @Query("update DownloadTask t set t.status = songbox.house.domain.entity.DownloadTaskStatus.PENDING, " +
+            "t.retries = t.retries + 1, t.nextAttemptAt = :nextAttemptAt, t.claimedUntil = null, " +
+            "t.claimToken = null " +
+            "where t.id = :id and t.status = songbox.house.domain.entity.DownloadTaskStatus.CLAIMED " +
+            "and t.claimToken = :claimToken")
+    int retryLater(@Param("id") Long id, @Param("claimToken") String claimToken,
+            @Param("nextAttemptAt") Date nextAttemptAt);
+
+    /**
+     * Returns the claimed tasks which haven't been processed
+     */
+    @Modifying
+    @Query("update DownloadTask t set t.status = songbox.house.domain.entity.DownloadTaskStatus.PENDING, " +
+            "t.claimedUntil = null, t.claimToken = null " +
+            "where t.id in (:ids) and t.status = songbox.house.domain.entity.DownloadTaskStatus.CLAIMED " +
+            "and t.claimToken = :claimToken")
+    void release(@Param("claimToken") String claimToken, @Param("ids") Collection<Long> ids);
+
+    @Query("select t.status, count(t) from DownloadTask t where t.jobId = :jobId group by t.status")
+    List<Object[]> countByStatus(@Param("jobId") Long jobId);
+}
@@ -0,0 +1,47 @@
+package songbox.house.repository;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import songbox.house.domain.entity.SearchReprocessLease;
+
+import java.util.Date;
+
+@Repository
+public interface SearchReprocessLeaseRepository extends CrudRepository<SearchReprocessLease, Long> {
+
+    /**
+     * Takes the user lease if the user has never been leased, has been done in another run or the lease has expired
+     *
+     * @return 1 if the lease is taken
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into \"SEARCH_REPROCESS_LEASE\" " +
+            "(\"USER_ID\", \"RUN_ID\", \"OWNER\", \"LEASED_UNTIL\", \"DONE\") " +
+            "values (:userId, :runId, :owner, :leasedUntil, false) " +
+            "on conflict (\"USER_ID\") do update set \"RUN_ID\" = excluded.\"RUN_ID\", " +
+            "\"OWNER\" = excluded.\"OWNER\", \"LEASED_UNTIL\" = excluded.\"LEASED_UNTIL\", \"DONE\" = false " +
+            "where (\"SEARCH_REPROCESS_LEASE\".\"DONE\" = true " +
+            "and \"SEARCH_REPROCESS_LEASE\".\"RUN_ID\" <> excluded.\"RUN_ID\") " +
+            "or (\"SEARCH_REPROCESS_LEASE\".\"DONE\" = false and \"SEARCH_REPROCESS_LEASE\".\"LEASED_UNTIL\" < :now)")
+    int tryAcquire(@Param("userId") Long userId, @Param("runId") String runId, @Param("owner") String owner,
+            @Param("leasedUntil") Date leasedUntil, @Param("now") Date now);
+
+    /**
+     * @return 1 if the lease is still held by the owner in the run
+     */
+    @Modifying
+    @Query("update SearchReprocessLease l set l.leasedUntil = :leasedUntil " +
+            "where l.userId = :userId and l.runId = :runId and l.owner = :owner and l.done = false")
+    int extend(@Param("userId") Long userId, @Param("runId") String runId, @Param("owner") String owner,
+            @Param("leasedUntil") Date leasedUntil);
+
+    boolean existsByUserIdAndDoneFalseAndLeasedUntilAfter(Long userId, Date now);
+
+    @Modifying
+    @Query("update SearchReprocessLease l set l.done = true " +
+            "where l.userId = :userId and l.runId = :runId and l.owner = :owner")
+    void setDone(@Param("userId") Long userId, @Param("runId") String runId, @Param("owner") String owner);
+}
@@ -17,8 +17,8 @@ import java.util.Set;
 
 @Repository
 public interface SearchReprocessRepository extends CrudRepository<SearchReprocess, Long> {
-    @Query(value = "select distinct s.userId from SearchReprocess s where s.status = ?1")
-    Iterable<Long> findAllUsersForReprocess(SearchReprocessStatus status);
+    @Query(value = "select distinct s.userId from SearchReprocess s where s.status = ?1 and s.nextAttemptAt <= ?2")
+    Iterable<Long> findAllUsersForReprocess(SearchReprocessStatus status, Date now);
 
     Page<SearchReprocess> findByUserId(Long userId, Pageable pageable);
 
@@ -26,6 +26,25 @@ public interface SearchReprocessRepository extends CrudRepository<SearchReproces
 
     Page<SearchReprocess> findByUserIdAndStatus(Long userId, SearchReprocessStatus status, Pageable pageable);
 
+    /**
+     * The searches due for the next attempt after the (afterAt, afterId) one, most overdue first, without the count
+     * query. The order is the order of the index, so the page is read from the index.
+     */
+    @Query("select s from SearchReprocess s where s.userId = :userId and s.status = :status " +
+            "and s.nextAttemptAt <= :now " +
+            "and (s.nextAttemptAt > :afterAt or (s.nextAttemptAt = :afterAt and s.id > :afterId)) " +
+            "order by s.nextAttemptAt, s.id")
+    List<SearchReprocess> findDue(@Param("userId") Long userId, @Param("status") SearchReprocessStatus status,
+            @Param("now") Date now, @Param("afterAt") Date afterAt, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    /**
+     * The searches created before the next attempt became not null
+     */
+    @Modifying
+    @Query("update SearchReprocess u set u.nextAttemptAt = coalesce(u.createdAt, :now) where u.nextAttemptAt is null")
+    int setMissingNextAttempts(@Param("now") Date now);
+
     @Modifying
     @Query("update SearchReprocess u set u.status = songbox.house.domain.entity.SearchReprocessStatus.DOWNLOADED, " +
             "u.downloadedAt = :downloadedAt where u.id in (:ids)")
@@ -35,25 +54,24 @@ public interface SearchReprocessRepository extends CrudRepository<SearchReproces
     @Query("update SearchReprocess u set u.status = songbox.house.domain.entity.SearchReprocessStatus.FOUND, u.foundAt = :foundAt where u.id in (:ids)")
     void setFound(@Param("foundAt") Date foundAt, @Param("ids") List<Long> ids);
 
-    @Modifying
-    @Query("update SearchReprocess u set u.status = songbox.house.domain.entity.SearchReprocessStatus.NOT_FOUND, " +
-            "u.foundAt = null " +
-            "where u.status = songbox.house.domain.entity.SearchReprocessStatus.FOUND and u.id not in (:ids)")
-    void setNotFound(@Param("ids") Set<Long> foundIds);
+    @Query("select s.id from SearchReprocess s where s.userId = :userId " +
+            "and s.status = songbox.house.domain.entity.SearchReprocessStatus.FOUND")
+    Set<Long> findFoundIds(@Param("userId") Long userId);
 
     @Modifying
     @Query("update SearchReprocess u set u.status = songbox.house.domain.entity.SearchReprocessStatus.NOT_FOUND, " +
-            "u.foundAt = null " +
-            "where u.status = songbox.house.domain.entity.SearchReprocessStatus.FOUND and u.userId = :userId")
-    void setNotFound(@Param("userId") Long userId);
+            "u.foundAt = null, u.nextAttemptAt = :now " +
+            "where u.status = songbox.house.domain.entity.SearchReprocessStatus.FOUND and u.id in (:ids)")
+    void setNotFound(@Param("ids") Set<Long> lostIds, @Param("now") Date now);
 
     @Modifying
     @Query("update SearchReprocess u set u.status = songbox.house.domain.entity.SearchReprocessStatus.NOT_FOUND, " +
-            "u.foundAt = null " +
+            "u.foundAt = null, u.retries = 0, u.nextAttemptAt = :now " +
             "where u.id = :id")
-    void setNotFoundById(@Param("id") Long id);
+    void setNotFoundById(@Param("id") Long id, @Param("now") Date now);
 
     @Modifying
-    @Query("update SearchReprocess u set u.retries = u.retries + 1 where u.id in (:ids)")
-    void incrementRetryCount(@Param("ids") Set<Long> ids);
+    @Query("update SearchReprocess u set u.retries = u.retries + 1, u.nextAttemptAt = :nextAttemptAt " +
+            "where u.id in (:ids)")
+    void incrementRetryCount(@Param("nextAttemptAt") Date nextAttemptAt, @Param("ids") Set<Long> ids);
 }
@@ -12,5 +12,17 @@ public interface SearchReprocessResultRepository {
 
     Map<Long, SearchReprocessResultDto> available(Long userId);
 
+    /**
+     * Same as {@code available(userId).keySet()}, but without reading the results
+     */
+    Set<Long> availableIds(Long userId);
+
     void remove(Long userId, Set<Long> downloadedReprocessIds);
+
+    /**
+     * Changes when the results of the user are lost (expired or evicted), but not when they are saved or removed
+     *
+     * @return null if the version itself is lost, it can't be told then whether the results are lost
+     */
+    String getVersion(Long userId);
 }
@@ -2,9 +2,15 @@ package songbox.house.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import songbox.house.domain.entity.Track;
+import songbox.house.domain.entity.TrackContent;
+
+import java.util.Optional;
 
 @Repository
 public interface TrackRepository extends PagingAndSortingRepository<Track, Long> {
@@ -12,5 +18,12 @@ public interface TrackRepository extends PagingAndSortingRepository<Track, Long>
 
     Track findFirstByAuthorsStrIgnoreCaseAndTitleIgnoreCase(final String artist, final String title);
 
+    @Query("select t.content from Track t where t.trackId = :trackId")
+    Optional<TrackContent> findContentByTrackId(@Param("trackId") final Long trackId);
+
     int deleteByCollections_CollectionId(final Long collectionId);
+
+    @Modifying
+    @Query("update Track t set t.artworkUrl = :artworkUrl where t.trackId = :trackId")
+    void setArtworkUrl(@Param("trackId") final Long trackId, @Param("artworkUrl") final String artworkUrl);
 }
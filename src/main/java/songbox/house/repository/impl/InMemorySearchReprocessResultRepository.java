@@ -1,62 +1,306 @@
 package songbox.house.repository.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.common.cache.Cache;
+import com.google.common.cache.RemovalNotification;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
 import songbox.house.domain.dto.SearchReprocessResultDto;
 import songbox.house.repository.SearchReprocessResultRepository;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
-import static java.util.Collections.emptyMap;
-import static java.util.Objects.isNull;
-import static java.util.Objects.nonNull;
-import static java.util.stream.Collectors.toMap;
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+import static com.fasterxml.jackson.databind.SerializationFeature.FAIL_ON_EMPTY_BEANS;
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static com.google.common.cache.RemovalCause.REPLACED;
+import static com.google.common.cache.RemovalCause.SIZE;
+import static java.util.Collections.emptySet;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.stream.Collectors.toSet;
+import static org.apache.commons.lang3.StringUtils.isBlank;
 
+/**
+ * Results are kept Smile encoded in the cache bounded by the encoded size and expired after the ttl. The results
+ * evicted by the size are written to the overflow dir ({@code dir/userId/searchReprocessId}) if it's configured, the
+ * file keeps the time the result was saved, so it expires at the same time as in the cache.
+ */
 @Repository
+@Slf4j
 @ConditionalOnProperty(name = "songbox.house.search.reprocess.redis", havingValue = "false")
 public class InMemorySearchReprocessResultRepository implements SearchReprocessResultRepository {
 
-    private static final Map<Long, Map<Long, SearchReprocessResultDto>> CACHE = new ConcurrentHashMap<>();
+    private static final String KEY_SEPARATOR = ":";
+
+    private final Cache<String, StoredResult> cache;
+    // ids of the results in the cache by user
+    private final ConcurrentMap<Long, Set<Long>> idsByUser = new ConcurrentHashMap<>();
+    private final AtomicLong memoryBytes = new AtomicLong();
+    // bumped when the results of the user are lost
+    private final ConcurrentMap<Long, Long> versions = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final Path overflowDir;
+    private final Duration ttl;
+    private final Clock clock;
+
+    public InMemorySearchReprocessResultRepository(MeterRegistry meterRegistry, Clock clock,
+            @Value("${songbox.house.search.reprocess.result.memory.max.bytes:67108864}") Long maxBytes,
+            @Value("${songbox.house.search.reprocess.result.ttl.days:30}") Long ttlDays,
+            @Value("${songbox.house.search.reprocess.result.memory.overflow.dir:}") String overflowDir) {
+        this.clock = clock;
+        this.ttl = Duration.ofDays(ttlDays);
+        this.overflowDir = isBlank(overflowDir) ? null : Paths.get(overflowDir);
+        this.objectMapper = new ObjectMapper(new SmileFactory())
+                .disable(FAIL_ON_UNKNOWN_PROPERTIES)
+                .disable(FAIL_ON_EMPTY_BEANS);
+        this.cache = newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(InMemorySearchReprocessResultRepository::weight)
+                .expireAfterWrite(ttlDays, DAYS)
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+
+        GuavaCacheMetrics.monitor(meterRegistry, cache, "search.reprocess.result");
+        Gauge.builder("songbox.search.reprocess.result.memory.bytes", memoryBytes, AtomicLong::get)
+                .description("Approximate size of the results in memory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
 
     @Override
     public void save(Long userId, Map<Long, SearchReprocessResultDto> reprocessResult) {
-        final Map<Long, SearchReprocessResultDto> byUser = CACHE.get(userId);
-        if (isNull(byUser)) {
-            CACHE.put(userId, new ConcurrentHashMap<>(reprocessResult));
-        } else {
-            byUser.putAll(reprocessResult);
-        }
+        reprocessResult.forEach((id, result) -> {
+            final String key = getKey(userId, id);
+            final byte[] value = serialize(result);
+            idsByUser.compute(userId, (user, ids) -> {
+                final Set<Long> userIds = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                userIds.add(id);
+                return userIds;
+            });
+            final StoredResult stored = new StoredResult(value, clock.millis());
+            memoryBytes.addAndGet(weight(key, stored));
+            cache.put(key, stored);
+        });
     }
 
     @Override
     public Map<Long, SearchReprocessResultDto> get(Long userId, Set<Long> searchReprocessIds) {
-        final Map<Long, SearchReprocessResultDto> byUser = CACHE.get(userId);
-        if (isNull(byUser)) {
-            return emptyMap();
-        } else {
-            return byUser.entrySet().stream()
-                    .filter(entry -> searchReprocessIds.contains(entry.getKey()))
-                    .collect(toMap(Map.Entry::getKey, Map.Entry::getValue));
-        }
+        final Map<Long, SearchReprocessResultDto> result = new HashMap<>();
+        searchReprocessIds.forEach(id -> read(userId, id)
+                .map(this::deserialize)
+                .ifPresent(dto -> result.put(id, dto)));
+        return result;
     }
 
     @Override
     public Map<Long, SearchReprocessResultDto> available(Long userId) {
-        final Map<Long, SearchReprocessResultDto> byUser = CACHE.get(userId);
-        if (isNull(byUser)) {
-            return emptyMap();
-        } else {
-            return byUser;
-        }
+        return get(userId, availableIds(userId));
+    }
+
+    @Override
+    public Set<Long> availableIds(Long userId) {
+        final Set<Long> ids = idsByUser.getOrDefault(userId, emptySet()).stream()
+                .filter(id -> cache.getIfPresent(getKey(userId, id)) != null)
+                .collect(toSet());
+        ids.addAll(getOverflowIds(userId));
+        return ids;
     }
 
     @Override
     public void remove(Long userId, Set<Long> downloadedReprocessIds) {
-        final Map<Long, SearchReprocessResultDto> byUser = CACHE.get(userId);
-        if (nonNull(byUser)) {
-            downloadedReprocessIds.forEach(byUser::remove);
+        downloadedReprocessIds.forEach(id -> {
+            cache.invalidate(getKey(userId, id));
+            deleteOverflow(userId, id);
+        });
+    }
+
+    @Override
+    public String getVersion(Long userId) {
+        return String.valueOf(versions.getOrDefault(userId, 0L));
+    }
+
+    /**
+     * Expired results are removed from the cache only on the cache access, the overflow files only on the read
+     */
+    @Scheduled(fixedDelayString = "${songbox.house.search.reprocess.result.memory.cleanup.ms:3600000}")
+    public void cleanUp() {
+        cache.cleanUp();
+        if (overflowDir == null || !Files.isDirectory(overflowDir)) {
+            return;
+        }
+        try (Stream<Path> userDirs = Files.list(overflowDir)) {
+            userDirs.forEach(userDir -> getOverflowIds(Long.valueOf(userDir.getFileName().toString())));
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Can't clean up the reprocess results overflow dir {}", overflowDir, e);
+        }
+    }
+
+    private void onRemoval(RemovalNotification<String, StoredResult> notification) {
+        memoryBytes.addAndGet(-weight(notification.getKey(), notification.getValue()));
+        if (notification.getCause() == REPLACED) {
+            return;
+        }
+
+        final String[] key = notification.getKey().split(KEY_SEPARATOR);
+        final Long userId = Long.valueOf(key[0]);
+        final Long id = Long.valueOf(key[1]);
+        idsByUser.computeIfPresent(userId, (user, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+        final boolean kept = notification.getCause() == SIZE && overflowDir != null
+                && writeOverflow(userId, id, notification.getValue());
+        if (notification.wasEvicted() && !kept) {
+            versions.merge(userId, 1L, Long::sum);
+        }
+    }
+
+    private Optional<byte[]> read(Long userId, Long id) {
+        final StoredResult stored = cache.getIfPresent(getKey(userId, id));
+        return stored != null ? Optional.of(stored.value) : readOverflow(userId, id);
+    }
+
+    private Set<Long> getOverflowIds(Long userId) {
+        if (overflowDir == null) {
+            return emptySet();
+        }
+        final Path userDir = overflowDir.resolve(String.valueOf(userId));
+        if (!Files.isDirectory(userDir)) {
+            return emptySet();
+        }
+
+        final Set<Long> ids = new HashSet<>();
+        try (Stream<Path> files = Files.list(userDir)) {
+            files.filter(file -> notExpired(userId, file))
+                    .forEach(file -> ids.add(Long.valueOf(file.getFileName().toString())));
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Can't list the reprocess results overflow of user {}", userId, e);
+        }
+        return ids;
+    }
+
+    private Optional<byte[]> readOverflow(Long userId, Long id) {
+        if (overflowDir == null) {
+            return Optional.empty();
+        }
+        final Path file = getOverflowFile(userId, id);
+        if (!Files.exists(file) || !notExpired(userId, file)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Files.readAllBytes(file));
+        } catch (IOException e) {
+            log.warn("Can't read the reprocess result {} of user {} from {}", id, userId, file, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return false if the result is lost
+     */
+    private boolean writeOverflow(Long userId, Long id, StoredResult stored) {
+        final Path file = getOverflowFile(userId, id);
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, stored.value);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(stored.savedAtMs));
+            return true;
+        } catch (IOException e) {
+            log.warn("Can't write the evicted reprocess result {} of user {} to {}", id, userId, file, e);
+            deleteOverflow(userId, id);
+            return false;
+        }
+    }
+
+    private void deleteOverflow(Long userId, Long id) {
+        if (overflowDir == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(getOverflowFile(userId, id));
+        } catch (IOException e) {
+            log.warn("Can't delete the reprocess result {} of user {}", id, userId, e);
+        }
+    }
+
+    /**
+     * Deletes the file if it's expired
+     */
+    private boolean notExpired(Long userId, Path file) {
+        try {
+            final long ageMs = clock.millis() - Files.getLastModifiedTime(file).toMillis();
+            if (ageMs < ttl.toMillis()) {
+                return true;
+            }
+            if (Files.deleteIfExists(file)) {
+                versions.merge(userId, 1L, Long::sum);
+            }
+        } catch (IOException e) {
+            log.warn("Can't check the reprocess result file {}", file, e);
+        }
+        return false;
+    }
+
+    private Path getOverflowFile(Long userId, Long id) {
+        return overflowDir.resolve(String.valueOf(userId)).resolve(String.valueOf(id));
+    }
+
+    private String getKey(Long userId, Long searchReprocessId) {
+        return userId + KEY_SEPARATOR + searchReprocessId;
+    }
+
+    private static int weight(String key, StoredResult stored) {
+        return key.length() + stored.value.length;
+    }
+
+    private byte[] serialize(SearchReprocessResultDto searchReprocessResult) {
+        try {
+            return objectMapper.writeValueAsBytes(searchReprocessResult);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private SearchReprocessResultDto deserialize(byte[] searchReprocessResult) {
+        try {
+            return objectMapper.readValue(searchReprocessResult, SearchReprocessResultDto.class);
+        } catch (IOException e) {
+            log.error("Deserialize exception", e);
+            return null;
+        }
+    }
+
+    private static final class StoredResult {
+        private final byte[] value;
+        private final long savedAtMs;
+
+        private StoredResult(byte[] value, long savedAtMs) {
+            this.value = value;
+            this.savedAtMs = savedAtMs;
         }
     }
 }
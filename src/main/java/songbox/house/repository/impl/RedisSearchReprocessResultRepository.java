@@ -1,92 +1,277 @@
 package songbox.house.repository.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import songbox.house.domain.dto.SearchReprocessResultDto;
 import songbox.house.infrastructure.redis.RedisDAO;
 import songbox.house.infrastructure.redis.RedisDAOImpl;
 import songbox.house.repository.SearchReprocessResultRepository;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
 import static com.fasterxml.jackson.databind.SerializationFeature.FAIL_ON_EMPTY_BEANS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
 import static java.util.stream.Collectors.toSet;
+import static redis.clients.jedis.params.sortedset.ZAddParams.zAddParams;
 
+/**
+ * User results are in the hash {@code userId}, the values are Smile encoded (the old JSON values are still read).
+ * The hash fields can't expire, so the expiry time of every result is the score in the sorted set
+ * {@code userId:expires}, expired results are removed when they are read. The results saved before the sorted set
+ * existed get the full ttl when the hash is read for the first time. The version {@code userId:version} is created
+ * with the hash and replaced when the expired results are removed, so it changes if the results are lost.
+ */
 @Component
 @Slf4j
 @ConditionalOnProperty(name = "songbox.house.search.reprocess.redis", matchIfMissing = true, havingValue = "true")
 public class RedisSearchReprocessResultRepository implements SearchReprocessResultRepository {
 
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+
     private final RedisDAO redisDAO;
-    private final ObjectMapper objectMapper;
+    private final ObjectMapper smileMapper;
+    private final ObjectMapper jsonMapper;
+    private final Clock clock;
+    private final Duration ttl;
 
-    public RedisSearchReprocessResultRepository(
+    public RedisSearchReprocessResultRepository(Clock clock,
             @Value("${songbox.house.search.reprocess.result.redis.host:localhost}") String host,
             @Value("${songbox.house.search.reprocess.result.redis.port:36379}") Integer port,
             @Value("${songbox.house.search.reprocess.result.redis.password:d0cker}") String password,
             @Value("${songbox.house.search.reprocess.result.redis.db.index:1}") Integer dbIndex,
-            @Value("${songbox.house.search.reprocess.result.redis.timeout.ms:2000}") Integer timeoutMs) {
+            @Value("${songbox.house.search.reprocess.result.redis.timeout.ms:2000}") Integer timeoutMs,
+            @Value("${songbox.house.search.reprocess.result.ttl.days:30}") Long ttlDays) {
         this.redisDAO = new RedisDAOImpl(host, port, password, dbIndex, timeoutMs);
-        this.objectMapper = new ObjectMapper()
-                .disable(FAIL_ON_UNKNOWN_PROPERTIES)
-                .disable(FAIL_ON_EMPTY_BEANS);
+        this.smileMapper = createObjectMapper(new ObjectMapper(new SmileFactory()));
+        this.jsonMapper = createObjectMapper(new ObjectMapper());
+        this.clock = clock;
+        this.ttl = Duration.ofDays(ttlDays);
     }
 
     @Override
     public void save(Long userId, Map<Long, SearchReprocessResultDto> reprocessResult) {
-        String key = getKey(userId);
+        final byte[] key = getKey(userId);
+        final byte[] expiresKey = getExpiresKey(userId);
+        final double expiresAt = clock.millis() + ttl.toMillis();
         redisDAO.doInPipeline(pipeline -> {
-            reprocessResult.forEach((k, v) -> pipeline.hset(key, String.valueOf(k), serialize(v)));
+            reprocessResult.forEach((id, result) -> {
+                pipeline.hset(key, toField(id), serialize(result));
+                pipeline.zadd(expiresKey, expiresAt, toField(id));
+            });
+            pipeline.setnx(getVersionKey(userId), newVersion());
+            // the whole user hash goes away if nothing is saved for the ttl
+            pipeline.pexpire(key, ttl.toMillis());
+            pipeline.pexpire(expiresKey, ttl.toMillis());
+            pipeline.pexpire(getVersionKey(userId), ttl.toMillis());
         });
     }
 
     @Override
     public Map<Long, SearchReprocessResultDto> get(Long userId, Set<Long> searchReprocessIds) {
-        String key = getKey(userId);
-        return redisDAO.hgetAll(key).entrySet().stream()
-                .filter(entry -> searchReprocessIds.contains(Long.valueOf(entry.getKey())))
-                .collect(Collectors.toMap(e -> Long.valueOf(e.getKey()), e -> deserialize(e.getValue())));
+        if (searchReprocessIds.isEmpty()) {
+            return emptyMap();
+        }
+
+        final Long[] ids = searchReprocessIds.toArray(new Long[0]);
+        final byte[][] fields = new byte[ids.length][];
+        for (int i = 0; i < ids.length; i++) {
+            fields[i] = toField(ids[i]);
+        }
+
+        final AtomicReference<Response<List<byte[]>>> values = new AtomicReference<>();
+        final Set<Long> expired = readWithExpired(userId, pipeline -> values.set(pipeline.hmget(getKey(userId), fields)));
+
+        final Map<Long, SearchReprocessResultDto> result = new HashMap<>();
+        final List<byte[]> serialized = values.get().get();
+        for (int i = 0; i < ids.length; i++) {
+            if (serialized.get(i) != null && !expired.contains(ids[i])) {
+                putIfReadable(result, ids[i], serialized.get(i));
+            }
+        }
+        return result;
     }
 
     @Override
     public Map<Long, SearchReprocessResultDto> available(Long userId) {
-        String key = getKey(userId);
-        return redisDAO.hgetAll(key).entrySet().stream()
-                .collect(Collectors.toMap(e -> Long.valueOf(e.getKey()), e -> deserialize(e.getValue())));
+        final AtomicReference<Response<Map<byte[], byte[]>>> values = new AtomicReference<>();
+        final Set<Long> expired = readWithExpired(userId, pipeline -> values.set(pipeline.hgetAll(getKey(userId))));
+
+        final Map<Long, SearchReprocessResultDto> result = new HashMap<>();
+        values.get().get().forEach((field, value) -> {
+            final Long id = fromField(field);
+            if (!expired.contains(id)) {
+                putIfReadable(result, id, value);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public Set<Long> availableIds(Long userId) {
+        final AtomicReference<Response<Set<byte[]>>> fields = new AtomicReference<>();
+        final Set<Long> expired = readWithExpired(userId, pipeline -> fields.set(pipeline.hkeys(getKey(userId))));
+
+        return fields.get().get().stream()
+                .map(this::fromField)
+                .filter(id -> !expired.contains(id))
+                .collect(toSet());
     }
 
     @Override
     public void remove(Long userId, Set<Long> downloadedReprocessIds) {
-        String key = getKey(userId);
-        redisDAO.hdel(key, downloadedReprocessIds.stream().map(String::valueOf).collect(toSet()));
+        if (downloadedReprocessIds.isEmpty()) {
+            return;
+        }
+        final byte[][] fields = downloadedReprocessIds.stream().map(this::toField).toArray(byte[][]::new);
+        redisDAO.doInPipeline(pipeline -> {
+            pipeline.hdel(getKey(userId), fields);
+            pipeline.zrem(getExpiresKey(userId), fields);
+        });
     }
 
-    private String getKey(Long userId) {
-        return String.valueOf(userId);
+    @Override
+    public String getVersion(Long userId) {
+        final AtomicReference<Response<byte[]>> version = new AtomicReference<>();
+        redisDAO.doInPipeline(pipeline -> version.set(pipeline.get(getVersionKey(userId))));
+        final byte[] value = version.get().get();
+        return value == null ? null : new String(value, UTF_8);
+    }
+
+    /**
+     * The read and the expired ids lookup go in one round trip, the expired results are removed only if there are any
+     */
+    private Set<Long> readWithExpired(Long userId, Consumer<Pipeline> read) {
+        final AtomicReference<Response<Set<byte[]>>> expiredFields = new AtomicReference<>();
+        final AtomicReference<Response<Long>> results = new AtomicReference<>();
+        final AtomicReference<Response<Long>> expiries = new AtomicReference<>();
+        redisDAO.doInPipeline(pipeline -> {
+            read.accept(pipeline);
+            expiredFields.set(pipeline.zrangeByScore(getExpiresKey(userId), 0, clock.millis()));
+            results.set(pipeline.hlen(getKey(userId)));
+            expiries.set(pipeline.zcard(getExpiresKey(userId)));
+        });
+
+        if (results.get().get() > expiries.get().get()) {
+            setMissingExpiries(userId);
+        }
+
+        final Set<byte[]> expired = expiredFields.get().get();
+        if (!expired.isEmpty()) {
+            final byte[][] fields = expired.toArray(new byte[0][]);
+            redisDAO.doInPipeline(pipeline -> {
+                pipeline.hdel(getKey(userId), fields);
+                pipeline.zrem(getExpiresKey(userId), fields);
+                pipeline.set(getVersionKey(userId), newVersion());
+                pipeline.pexpire(getVersionKey(userId), ttl.toMillis());
+            });
+            log.debug("Removed {} expired reprocess results of user {}", fields.length, userId);
+        }
+        return expired.stream().map(this::fromField).collect(toSet());
     }
 
-    private String serialize(SearchReprocessResultDto searchReprocessResult) {
+    /**
+     * The hash is still renewed on every save, so the results without the expiry time would never expire
+     */
+    private void setMissingExpiries(Long userId) {
+        final AtomicReference<Response<Set<byte[]>>> fields = new AtomicReference<>();
+        redisDAO.doInPipeline(pipeline -> fields.set(pipeline.hkeys(getKey(userId))));
+
+        final double expiresAt = clock.millis() + ttl.toMillis();
+        final Map<byte[], Double> scores = new HashMap<>();
+        fields.get().get().forEach(field -> scores.put(field, expiresAt));
+        if (scores.isEmpty()) {
+            return;
+        }
+        redisDAO.doInPipeline(pipeline -> {
+            // only the fields without the expiry time get it
+            pipeline.zadd(getExpiresKey(userId), scores, zAddParams().nx());
+            pipeline.pexpire(getExpiresKey(userId), ttl.toMillis());
+        });
+        log.debug("Set expiry time of the reprocess results of user {} saved without it", userId);
+    }
+
+    private void putIfReadable(Map<Long, SearchReprocessResultDto> result, Long id, byte[] value) {
+        final SearchReprocessResultDto deserialized = deserialize(value);
+        if (deserialized != null) {
+            result.put(id, deserialized);
+        }
+    }
+
+    private byte[] getKey(Long userId) {
+        return String.valueOf(userId).getBytes(UTF_8);
+    }
+
+    private byte[] getExpiresKey(Long userId) {
+        return (userId + ":expires").getBytes(UTF_8);
+    }
+
+    private byte[] getVersionKey(Long userId) {
+        return (userId + ":version").getBytes(UTF_8);
+    }
+
+    private byte[] newVersion() {
+        return UUID.randomUUID().toString().getBytes(UTF_8);
+    }
+
+    private byte[] toField(Long searchReprocessId) {
+        return String.valueOf(searchReprocessId).getBytes(UTF_8);
+    }
+
+    private Long fromField(byte[] field) {
+        return Long.valueOf(new String(field, UTF_8));
+    }
+
+    private byte[] serialize(SearchReprocessResultDto searchReprocessResult) {
         try {
-            return objectMapper.writeValueAsString(searchReprocessResult);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+            return smileMapper.writeValueAsBytes(searchReprocessResult);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    private SearchReprocessResultDto deserialize(String searchReprocessResult) {
+    private SearchReprocessResultDto deserialize(byte[] searchReprocessResult) {
         try {
+            final ObjectMapper objectMapper = isSmile(searchReprocessResult) ? smileMapper : jsonMapper;
             return objectMapper.readValue(searchReprocessResult, SearchReprocessResultDto.class);
         } catch (IOException e) {
             log.error("Deserialize exception", e);
             return null;
         }
     }
+
+    private boolean isSmile(byte[] value) {
+        if (value.length < SMILE_HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < SMILE_HEADER.length; i++) {
+            if (value[i] != SMILE_HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ObjectMapper createObjectMapper(ObjectMapper objectMapper) {
+        return objectMapper
+                .disable(FAIL_ON_UNKNOWN_PROPERTIES)
+                .disable(FAIL_ON_EMPTY_BEANS);
+    }
 }
@@ -0,0 +1,18 @@
+package songbox.house.service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface ArtworkService {
+
+    /**
+     * Artwork which has already been found, doesn't go to the artwork sources.
+     */
+    Optional<String> getCached(String searchQuery);
+
+    /**
+     * Looks for the artwork on the separate executor, concurrent lookups with the same normalized query share one
+     * request. Found artwork is stored, so the next lookups are served from {@link #getCached(String)}.
+     */
+    CompletableFuture<Optional<String>> searchAsync(String searchQuery);
+}
@@ -1,20 +1,57 @@
 package songbox.house.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.messaging.handler.annotation.Payload;
+import songbox.house.domain.dto.FailedQueryDto;
+import songbox.house.service.search.FailedQueryReprocessService;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
 
 @Data
 @Slf4j
 public class KafkaConsumer {
 
     public static final String FAILED_QUERIES_TOPIC_NAME = "failed_queries";
+    public static final String FAILED_QUERIES_RETRY_5M_TOPIC_NAME = "failed_queries_retry_5m";
+    public static final String FAILED_QUERIES_RETRY_1H_TOPIC_NAME = "failed_queries_retry_1h";
+    public static final String FAILED_QUERIES_RETRY_1D_TOPIC_NAME = "failed_queries_retry_1d";
+
+    private static final String[] RETRY_TOPIC_NAMES = {FAILED_QUERIES_RETRY_5M_TOPIC_NAME,
+            FAILED_QUERIES_RETRY_1H_TOPIC_NAME, FAILED_QUERIES_RETRY_1D_TOPIC_NAME};
+    private static final Duration[] RETRY_DELAYS = {Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofDays(1)};
 
-    @KafkaListener(topics = FAILED_QUERIES_TOPIC_NAME)
+    private final FailedQueryReprocessService failedQueryReprocessService;
+    private final ObjectMapper objectMapper = new ObjectMapper().disable(FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @KafkaListener(topics = {FAILED_QUERIES_TOPIC_NAME, FAILED_QUERIES_RETRY_5M_TOPIC_NAME,
+            FAILED_QUERIES_RETRY_1H_TOPIC_NAME, FAILED_QUERIES_RETRY_1D_TOPIC_NAME})
     public void listen(@Payload String message) {
-        log.trace("Consumed '{}' from {} topic", message, FAILED_QUERIES_TOPIC_NAME);
-        // TODO fix duplicates
-        // TODO decide what to do (sleep/retry(how much?)/some smarter)
+        log.trace("Consumed '{}' from failed queries topics", message);
+        try {
+            failedQueryReprocessService.add(objectMapper.readValue(message, FailedQueryDto.class));
+        } catch (IOException e) {
+            log.warn("Skipping not readable failed query '{}'", message, e);
+        }
+    }
+
+    public static int getRetriesCount() {
+        return RETRY_TOPIC_NAMES.length;
+    }
+
+    /**
+     * @param retry from 1 to {@link #getRetriesCount()}, null or 0 for the failed queries topic
+     */
+    public static String getFailedQueriesTopicName(Integer retry) {
+        return retry == null || retry == 0 ? FAILED_QUERIES_TOPIC_NAME : RETRY_TOPIC_NAMES[retry - 1];
+    }
+
+    public static Duration getRetryDelay(int retry) {
+        return RETRY_DELAYS[retry - 1];
     }
 }
@@ -1,5 +1,10 @@
 package songbox.house.service;
 
+import songbox.house.domain.dto.FailedQueryDto;
+
 public interface KafkaService {
-    void sendToFailedQueries(String query);
+    /**
+     * To the failed queries topic or to the retry topic of {@code failedQuery.retry}
+     */
+    void sendToFailedQueries(FailedQueryDto failedQuery);
 }
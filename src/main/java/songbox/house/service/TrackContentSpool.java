@@ -0,0 +1,12 @@
+package songbox.house.service;
+
+import songbox.house.domain.dto.TrackContentSource;
+
+import java.util.Optional;
+
+public interface TrackContentSpool {
+    /**
+     * Streams the track from the url to the spool file, the source must be released after it's saved
+     */
+    Optional<TrackContentSource> download(String url);
+}
@@ -0,0 +1,32 @@
+package songbox.house.service;
+
+import songbox.house.domain.dto.ByteArrayContentSource;
+import songbox.house.domain.dto.TrackContentSource;
+import songbox.house.domain.entity.TrackContent;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Track audio storage outside the database, addressed by the SHA-256 of the content
+ */
+public interface TrackContentStore {
+
+    /**
+     * Stores the content once for the same hash
+     *
+     * @return not saved content reference with the hash and the length
+     */
+    TrackContent put(InputStream content) throws IOException;
+
+    TrackContentSource get(String hash);
+
+    /**
+     * Content of the tracks saved before the store is still read from the database
+     */
+    default TrackContentSource open(TrackContent content) {
+        return content.getHash() != null
+                ? get(content.getHash())
+                : new ByteArrayContentSource(content.getContent());
+    }
+}
@@ -28,4 +28,6 @@ public interface TrackService {
     Iterable<Track> getByIds(final Set<Long> trackIds);
 
     void addToCollection(Track fromDb, Long collectionId);
+
+    void setArtworkUrl(Long trackId, String artworkUrl);
 }
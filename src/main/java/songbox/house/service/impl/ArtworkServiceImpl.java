@@ -0,0 +1,121 @@
+package songbox.house.service.impl;
+
+import com.google.common.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import songbox.house.domain.entity.Artwork;
+import songbox.house.repository.ArtworkRepository;
+import songbox.house.service.ArtworkService;
+import songbox.house.service.DiscogsWebsiteService;
+import songbox.house.util.ExecutorUtil;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static lombok.AccessLevel.PRIVATE;
+import static songbox.house.util.StringUtils.normalize;
+
+@Service
+@FieldDefaults(makeFinal = true, level = PRIVATE)
+@Slf4j
+public class ArtworkServiceImpl implements ArtworkService {
+
+    DiscogsWebsiteService discogsWebsiteService;
+    ArtworkRepository artworkRepository;
+    ExecutorService artworkExecutorService;
+    ConcurrentMap<String, CompletableFuture<Optional<String>>> inFlight = new ConcurrentHashMap<>();
+    // not found artworks are not stored, only the lookups are throttled
+    Cache<String, Boolean> notFound;
+
+    public ArtworkServiceImpl(DiscogsWebsiteService discogsWebsiteService, ArtworkRepository artworkRepository,
+            MeterRegistry meterRegistry,
+            @Value("${songbox.house.artwork.threads:2}") Integer artworkThreads,
+            @Value("${songbox.house.artwork.not_found.size:1000}") Integer notFoundSize,
+            @Value("${songbox.house.artwork.not_found.ttl.minutes:60}") Integer notFoundTtlMinutes) {
+        this.discogsWebsiteService = discogsWebsiteService;
+        this.artworkRepository = artworkRepository;
+        this.artworkExecutorService = ExecutorServiceMetrics.monitor(meterRegistry,
+                ExecutorUtil.createExecutorService(artworkThreads), "artwork");
+        this.notFound = newBuilder()
+                .maximumSize(notFoundSize)
+                .expireAfterWrite(notFoundTtlMinutes, MINUTES)
+                .build();
+    }
+
+    @Override
+    public Optional<String> getCached(String searchQuery) {
+        return artworkRepository.findBySearchKey(normalize(searchQuery))
+                .map(Artwork::getUrl);
+    }
+
+    @Override
+    public CompletableFuture<Optional<String>> searchAsync(String searchQuery) {
+        final String searchKey = normalize(searchQuery);
+        if (searchKey.isEmpty() || notFound.getIfPresent(searchKey) != null) {
+            return completedFuture(Optional.empty());
+        }
+
+        final CompletableFuture<Optional<String>> future = new CompletableFuture<>();
+        final CompletableFuture<Optional<String>> running = inFlight.putIfAbsent(searchKey, future);
+        if (running != null) {
+            return running;
+        }
+
+        try {
+            supplyAsync(() -> lookup(searchQuery, searchKey), artworkExecutorService)
+                    .whenComplete((url, e) -> {
+                        inFlight.remove(searchKey, future);
+                        if (e != null) {
+                            log.warn("Can't find artwork for {}", searchQuery, e);
+                            future.complete(Optional.empty());
+                        } else {
+                            future.complete(url);
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            log.warn("Artwork lookup for {} is rejected", searchQuery);
+            inFlight.remove(searchKey, future);
+            future.complete(Optional.empty());
+        }
+        return future;
+    }
+
+    private Optional<String> lookup(String searchQuery, String searchKey) {
+        final Optional<String> cached = artworkRepository.findBySearchKey(searchKey).map(Artwork::getUrl);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        final Optional<String> url = discogsWebsiteService.searchArtwork(searchQuery);
+        if (url.isPresent()) {
+            save(searchKey, url.get());
+        } else {
+            notFound.put(searchKey, true);
+        }
+        return url;
+    }
+
+    private void save(String searchKey, String url) {
+        final Artwork artwork = new Artwork();
+        artwork.setSearchKey(searchKey);
+        artwork.setUrl(url);
+        try {
+            artworkRepository.save(artwork);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Artwork for {} has already been saved by another node", searchKey);
+        }
+    }
+}
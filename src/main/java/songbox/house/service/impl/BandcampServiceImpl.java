@@ -4,11 +4,11 @@ import lombok.AccessLevel;
 import lombok.Data;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Connection.Response;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.springframework.stereotype.Service;
 import songbox.house.client.BandcampClient;
+import songbox.house.client.http.HttpResponse;
 import songbox.house.domain.dto.request.SearchRequestDto;
 import songbox.house.domain.dto.response.SearchAndDownloadResponseDto;
 import songbox.house.domain.dto.response.TrackDto;
@@ -38,7 +38,7 @@ public class BandcampServiceImpl implements BandcampService {
 
         final SearchAndDownloadResponseDto searchAndDownloadResponseDto = new SearchAndDownloadResponseDto();
         try {
-            final Response response = bandcampClient.search(link);
+            final HttpResponse response = bandcampClient.search(link);
             Document document = response.parse();
             Element trackTable = document.select("#track_table").get(0);
             List<SearchRequestDto> tracks = trackTable.select(".track_row_view").stream()
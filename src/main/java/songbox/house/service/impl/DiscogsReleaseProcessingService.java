@@ -20,7 +20,9 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import static java.util.Collections.emptyList;
 import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.toList;
 import static lombok.AccessLevel.PRIVATE;
 import static org.springframework.util.CollectionUtils.isEmpty;
 
@@ -45,6 +47,18 @@ class DiscogsReleaseProcessingService {
         return toDto(tracks, artists);
     }
 
+    /**
+     * Search requests of the release tracks, to download them later
+     */
+    List<SearchRequestDto> toSearchRequests(DiscogsReleaseResponseDto release, Long collectionId, boolean only320) {
+        Set<String> genres = new HashSet<>(release.getStyles());
+        String artists = DiscogsArtistsUtil.concatArtists(release.getArtists());
+
+        return ofNullable(release.getTracklist()).orElse(emptyList()).stream()
+                .map(discogsTrackDto -> getSearchRequestDto(artists, genres, collectionId, discogsTrackDto, only320))
+                .collect(toList());
+    }
+
     private Map<String, Optional<TrackDto>> processTrackList(List<DiscogsTrackDto> trackList,
             String artists, Set<String> genres, Long collectionId, boolean only320) {
 
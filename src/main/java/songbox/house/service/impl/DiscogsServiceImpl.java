@@ -5,10 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Connection.Response;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import songbox.house.client.DiscogsClient;
+import songbox.house.client.http.HttpResponse;
 import songbox.house.domain.dto.response.DiscogsTrackListResponseDto;
 import songbox.house.domain.dto.response.SearchAndDownloadResponseDto;
 import songbox.house.domain.dto.response.discogs.DiscogsLabelReleasesDto;
@@ -26,12 +26,14 @@ import songbox.house.exception.DiscogsException;
 import songbox.house.exception.InvalidDiscogsLinkException;
 import songbox.house.service.DiscogsService;
 import songbox.house.service.MusicCollectionService;
+import songbox.house.service.search.DownloadJobService;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 import static java.lang.String.format;
 import static java.util.Arrays.stream;
@@ -61,6 +63,7 @@ public class DiscogsServiceImpl implements DiscogsService {
     DiscogsClient discogsClient;
     MusicCollectionService collectionService;
     DiscogsReleaseProcessingService releaseProcessingService;
+    DownloadJobService downloadJobService;
 
     @Override
     public SearchAndDownloadResponseDto searchAndDownload(String link, Long collectionId) {
@@ -76,7 +79,8 @@ public class DiscogsServiceImpl implements DiscogsService {
     public void searchAndDownloadAsync(String link, Long collectionId) {
         String releaseId = getReleaseId(link);
 
-        processDiscogsReleaseId(releaseId, collectionId, false);
+        inJob("Discogs release " + releaseId,
+                jobId -> processDiscogsReleaseId(jobId, releaseId, collectionId, false));
     }
 
     @Override
@@ -84,7 +88,8 @@ public class DiscogsServiceImpl implements DiscogsService {
     public void searchAndDownloadLinksAsync(String links, Long collectionId, String separator) {
         List<String> releaseIds = getReleaseIds(links, separator);
 
-        releaseIds.forEach(releaseId -> processDiscogsReleaseId(releaseId, collectionId, false));
+        inJob("Discogs releases " + String.join(", ", releaseIds), jobId ->
+                releaseIds.forEach(releaseId -> processDiscogsReleaseId(jobId, releaseId, collectionId, false)));
     }
 
     @Override
@@ -102,7 +107,8 @@ public class DiscogsServiceImpl implements DiscogsService {
     public void searchAndDownloadLabelTracks(String labelLink, Long collectionId, boolean only320) {
         String labelId = extractLabelId(labelLink);
 
-        processDiscogsPageableRequest(collectionId, labelId, this::getLabelReleases, false);
+        inJob("Discogs label " + labelId,
+                jobId -> processDiscogsPageableRequest(jobId, collectionId, labelId, this::getLabelReleases, false));
 
         log.info("Processing label releases finished.");
     }
@@ -112,7 +118,8 @@ public class DiscogsServiceImpl implements DiscogsService {
     public void searchAndDownloadUserDiscogsCollection(String userName, String collectionName) {
         MusicCollection collection = collectionService.getOrCreate(collectionName);
 
-        processDiscogsPageableRequest(collection.getCollectionId(), userName, this::getUserCollectionReleases, false);
+        inJob("Discogs collection of " + userName, jobId -> processDiscogsPageableRequest(jobId,
+                collection.getCollectionId(), userName, this::getUserCollectionReleases, false));
 
         log.info("Processing user collection finished.");
     }
@@ -122,7 +129,8 @@ public class DiscogsServiceImpl implements DiscogsService {
     public void searchAndDownloadArtistReleases(String link, Long collectionId, boolean only320) {
         String userId = extractArtistId(link).toString();
 
-        processDiscogsPageableRequest(collectionId, userId, this::getArtistReleases, only320);
+        inJob("Discogs artist " + userId,
+                jobId -> processDiscogsPageableRequest(jobId, collectionId, userId, this::getArtistReleases, only320));
 
         log.info("Processing artist releases finished.");
     }
@@ -132,28 +140,42 @@ public class DiscogsServiceImpl implements DiscogsService {
     public void searchAndDownloadUserWantList(String userName, String collectionName) {
         MusicCollection collection = collectionService.getOrCreate(collectionName);
 
-        int pageNumber = 1;
-        int countPages;
-        int i = 1;
+        inJob("Discogs want list of " + userName, jobId -> {
+            int pageNumber = 1;
+            int countPages;
+            int i = 1;
 
-        do {
-            DiscogsUserWantListDto userWantListReleaseIds = getUserWantListReleaseIds(userName, pageNumber);
-            countPages = userWantListReleaseIds.getPagination().getPages();
+            do {
+                DiscogsUserWantListDto userWantListReleaseIds = getUserWantListReleaseIds(userName, pageNumber);
+                countPages = userWantListReleaseIds.getPagination().getPages();
 
-            userWantListReleaseIds.getWants().stream()
-                    .map(DiscogsUserWantListItemDto::getId)
-                    .forEach(id -> processDiscogsReleaseId(id.toString(), collection.getCollectionId(), false));
-            log.info("Processed {} page of {}", pageNumber, countPages);
+                userWantListReleaseIds.getWants().stream()
+                        .map(DiscogsUserWantListItemDto::getId)
+                        .forEach(id -> processDiscogsReleaseId(jobId, id.toString(), collection.getCollectionId(),
+                                false));
+                log.info("Processed {} page of {}", pageNumber, countPages);
 
-            pageNumber = countPages - i + 1;
-        } while (i++ != countPages);
+                pageNumber = countPages - i + 1;
+            } while (i++ != countPages);
+        });
 
         log.info("Processing user want list finished.");
     }
 
-    private <T extends ReleasePageable> void processDiscogsPageableRequest(long collectionId, String entityId,
-            BiFunction<String, Integer, T> getDtoFunction,
-            boolean only320) {
+    /**
+     * The job is finished when the added tasks are downloaded, even if adding of the tasks has failed
+     */
+    private void inJob(String name, Consumer<Long> addTasks) {
+        final Long jobId = downloadJobService.create(name).getId();
+        try {
+            addTasks.accept(jobId);
+        } finally {
+            downloadJobService.allTasksAdded(jobId);
+        }
+    }
+
+    private <T extends ReleasePageable> void processDiscogsPageableRequest(Long jobId, long collectionId,
+            String entityId, BiFunction<String, Integer, T> getDtoFunction, boolean only320) {
 
         int pageNumber = 1;
         int countPages;
@@ -162,23 +184,23 @@ public class DiscogsServiceImpl implements DiscogsService {
             T releasesPageable = getDtoFunction.apply(entityId, pageNumber);
             countPages = releasesPageable.getPagination().getPages();
 
-            processReleases(releasesPageable.getReleases(), collectionId, only320);
+            processReleases(jobId, releasesPageable.getReleases(), collectionId, only320);
             log.info("Processed {} page of {}", pageNumber, countPages);
 
             pageNumber++;
         } while (pageNumber < countPages);
     }
 
-    private void processReleases(List<DiscogsReleaseDto> releases, Long collectionId, boolean only320) {
+    private void processReleases(Long jobId, List<DiscogsReleaseDto> releases, Long collectionId, boolean only320) {
         for (DiscogsReleaseDto releaseDto : releases) {
-            getReleaseDto(releaseDto.getId().toString())
-                    .ifPresent(release -> releaseProcessingService.processDiscogsRelease(release, collectionId, only320));
+            processDiscogsReleaseId(jobId, releaseDto.getId().toString(), collectionId, only320);
         }
     }
 
-    private void processDiscogsReleaseId(String releaseId, Long collectionId, boolean only320) {
+    private void processDiscogsReleaseId(Long jobId, String releaseId, Long collectionId, boolean only320) {
         getReleaseDto(releaseId)
-                .ifPresent(rel -> releaseProcessingService.processDiscogsRelease(rel, collectionId, only320));
+                .ifPresent(rel -> downloadJobService.addTasks(jobId,
+                        releaseProcessingService.toSearchRequests(rel, collectionId, only320)));
     }
 
     private List<String> getReleaseIds(String links, String separator) {
@@ -191,7 +213,7 @@ public class DiscogsServiceImpl implements DiscogsService {
 
     private Optional<DiscogsReleaseResponseDto> getReleaseDto(String releaseId) {
         try {
-            Response response = discogsClient.getRelease(releaseId);
+            HttpResponse response = discogsClient.getRelease(releaseId);
             return ofNullable(fromString(response.body(), DiscogsReleaseResponseDto.class));
         } catch (Exception e) {
             log.error("Error getting release by id {}", releaseId);
@@ -207,17 +229,17 @@ public class DiscogsServiceImpl implements DiscogsService {
     }
 
     private DiscogsReleasesPageableDto getArtistReleases(String artistId, int pageNumber) {
-        Response userCollectionItems = discogsClient.getArtistReleases(artistId, pageNumber, RELEASES_PAGE_SIZE);
+        HttpResponse userCollectionItems = discogsClient.getArtistReleases(artistId, pageNumber, RELEASES_PAGE_SIZE);
         return fromString(userCollectionItems.body(), DiscogsReleasesPageableDto.class);
     }
 
     private DiscogsReleasesPageableDto getUserCollectionReleases(String userName, int pageNumber) {
-        Response userCollectionItems = discogsClient.getUserCollectionItems(userName, pageNumber, RELEASES_PAGE_SIZE);
+        HttpResponse userCollectionItems = discogsClient.getUserCollectionItems(userName, pageNumber, RELEASES_PAGE_SIZE);
         return fromString(userCollectionItems.body(), DiscogsReleasesPageableDto.class);
     }
 
     private DiscogsUserWantListDto getUserWantListReleaseIds(String userName, int pageNumber) {
-        Response userCollectionItems = discogsClient.getUserWantListItems(userName, pageNumber, RELEASES_PAGE_SIZE);
+        HttpResponse userCollectionItems = discogsClient.getUserWantListItems(userName, pageNumber, RELEASES_PAGE_SIZE);
         return fromString(userCollectionItems.body(), DiscogsUserWantListDto.class);
     }
 
@@ -230,7 +252,7 @@ public class DiscogsServiceImpl implements DiscogsService {
 
     private DiscogsLabelReleasesDto getLabelReleases(String labelId,
             Integer pageNumber) {
-        Response response = discogsClient.getLabelReleases(labelId, pageNumber, RELEASES_PAGE_SIZE);
+        HttpResponse response = discogsClient.getLabelReleases(labelId, pageNumber, RELEASES_PAGE_SIZE);
         return fromString(response.body(), DiscogsLabelReleasesDto.class);
     }
 
@@ -256,7 +278,7 @@ public class DiscogsServiceImpl implements DiscogsService {
         String itemId = parseAsMarketplaceItem(link).toString();
         log.debug("Parsed item id {}", itemId);
 
-        Response response = discogsClient.getMarketplaceItem(itemId);
+        HttpResponse response = discogsClient.getMarketplaceItem(itemId);
         DiscogsMarketPlaceListingResponseDto responseDto = fromString(response.body(), DiscogsMarketPlaceListingResponseDto.class);
 
         return ofNullable(responseDto)
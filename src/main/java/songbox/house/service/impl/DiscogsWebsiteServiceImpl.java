@@ -2,12 +2,12 @@ package songbox.house.service.impl;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Connection.Response;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.springframework.stereotype.Service;
 import songbox.house.client.DiscogsClient;
+import songbox.house.client.http.HttpResponse;
 import songbox.house.domain.dto.request.ArtistTitleDto;
 import songbox.house.domain.dto.response.SongDto;
 import songbox.house.domain.dto.response.discogs.DiscogsReleaseDtoExt;
@@ -33,7 +33,7 @@ public class DiscogsWebsiteServiceImpl implements DiscogsWebsiteService {
     public Optional<String> searchArtwork(String searchQuery) {
         log.trace("Looking for an artwork for query = {}", searchQuery);
 
-        Response response = discogsClient.searchArtwork(searchQuery);
+        HttpResponse response = discogsClient.searchArtwork(searchQuery);
         try {
             if (response != null) {
                 Document document = response.parse();
@@ -52,7 +52,7 @@ public class DiscogsWebsiteServiceImpl implements DiscogsWebsiteService {
 
     @Override
     public List<DiscogsReleaseDtoExt> search(String query) {
-        Response response = discogsClient.search(query);
+        HttpResponse response = discogsClient.search(query);
 
         ArrayList<DiscogsReleaseDtoExt> result = new ArrayList<>();
 
@@ -97,7 +97,7 @@ public class DiscogsWebsiteServiceImpl implements DiscogsWebsiteService {
     @Override
     @Nullable
     public Optional<DiscogsReleaseDtoExt> getReleaseInfo(String discogsLink) {
-        Response response = discogsClient.getReleaseByLink(discogsLink);
+        HttpResponse response = discogsClient.getReleaseByLink(discogsLink);
 
         try {
             if (response != null) {
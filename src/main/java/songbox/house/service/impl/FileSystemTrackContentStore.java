@@ -0,0 +1,133 @@
+package songbox.house.service.impl;
+
+import com.google.common.hash.HashingInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import songbox.house.domain.dto.TrackContentSource;
+import songbox.house.domain.entity.TrackContent;
+import songbox.house.exception.NotExistsException;
+import songbox.house.service.TrackContentStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static com.google.common.hash.Hashing.sha256;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.text.MessageFormat.format;
+
+/**
+ * Content is kept in {@code dir/<first 2 chars of the hash>/<hash>}. The files are written to the tmp dir first and
+ * moved to the place atomically, so the stored file is always complete.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "songbox.house.content.store", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemTrackContentStore implements TrackContentStore {
+
+    private static final String TMP_DIR = "tmp";
+    private static final int SHARD_LENGTH = 2;
+
+    private final Path dir;
+    private final Path tmpDir;
+
+    public FileSystemTrackContentStore(
+            @Value("${songbox.house.content.store.dir:${user.home}/songbox-content}") String dir) {
+        this.dir = Paths.get(dir);
+        this.tmpDir = this.dir.resolve(TMP_DIR);
+        try {
+            Files.createDirectories(tmpDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't create the content store dir " + dir, e);
+        }
+    }
+
+    @Override
+    public TrackContent put(InputStream content) throws IOException {
+        final Path tmp = Files.createTempFile(tmpDir, "content-", ".tmp");
+        try {
+            final HashingInputStream hashingContent = new HashingInputStream(sha256(), content);
+            final long length = Files.copy(hashingContent, tmp, REPLACE_EXISTING);
+            final String hash = hashingContent.hash().toString();
+
+            final Path file = getFile(hash);
+            if (Files.exists(file)) {
+                log.debug("Content {} is already stored", hash);
+            } else {
+                Files.createDirectories(file.getParent());
+                Files.move(tmp, file, ATOMIC_MOVE);
+            }
+
+            final TrackContent trackContent = new TrackContent();
+            trackContent.setHash(hash);
+            trackContent.setLength(length);
+            return trackContent;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public TrackContentSource get(String hash) {
+        final Path file = getFile(hash);
+        if (!Files.exists(file)) {
+            throw new NotExistsException(format("Content {0} not exists!", hash));
+        }
+        return new FileContentSource(file);
+    }
+
+    private Path getFile(String hash) {
+        return dir.resolve(hash.substring(0, SHARD_LENGTH)).resolve(hash);
+    }
+
+    private static class FileContentSource implements TrackContentSource {
+        private final Path file;
+
+        FileContentSource(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return Channels.newInputStream(FileChannel.open(file, READ));
+        }
+
+        @Override
+        public long getLength() {
+            try {
+                return Files.size(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public long transferTo(WritableByteChannel target) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, READ)) {
+                final long size = channel.size();
+                long position = 0;
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, target);
+                }
+                return position;
+            }
+        }
+
+        /**
+         * Stored content is shared by the tracks, it's never deleted by the readers
+         */
+        @Override
+        public void release() {
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package songbox.house.service.impl;
 
-import com.google.api.client.http.FileContent;
+import com.google.api.client.http.InputStreamContent;
 import com.google.api.services.drive.Drive;
 import com.google.api.services.drive.model.File;
 import com.google.api.services.drive.model.FileList;
@@ -9,6 +9,7 @@ import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.util.TextUtils;
 import org.springframework.stereotype.Service;
+import songbox.house.domain.dto.TrackContentSource;
 import songbox.house.domain.dto.response.TrackDto;
 import songbox.house.domain.entity.MusicCollection;
 import songbox.house.domain.entity.Track;
@@ -17,11 +18,9 @@ import songbox.house.service.*;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
 
-import static java.io.File.createTempFile;
 import static lombok.AccessLevel.PRIVATE;
-import static org.apache.commons.io.FileUtils.writeByteArrayToFile;
+import static songbox.house.domain.dto.LazyContentTrackDto.contentSourceOf;
 
 @Slf4j
 @Service
@@ -48,7 +47,6 @@ public class GoogleDriveServiceImpl implements GoogleDriveService {
 
         try {
             final File fileMetadata = createMetadata(track);
-            final FileContent content = createContent(track);
 
             File initFolder;
 
@@ -63,7 +61,7 @@ public class GoogleDriveServiceImpl implements GoogleDriveService {
             }
 
             fileMetadata.setParents(Collections.singletonList(initFolder.getId()));
-            final File uploadedFile = drive.files().create(fileMetadata, content)
+            final File uploadedFile = drive.files().create(fileMetadata, createContent(track))
                     .setFields("id, parents")
                     .execute();
             log.info("Uploaded file with id {}", uploadedFile.getId());
@@ -141,10 +139,12 @@ public class GoogleDriveServiceImpl implements GoogleDriveService {
         return fileMetadata;
     }
 
-    private FileContent createContent(TrackDto track) throws IOException {
-        //TODO implement without files (with input streams)
-        java.io.File file = createTempFile("" + new Random().nextInt(), ".mp3");
-        writeByteArrayToFile(file, track.getContent());
-        return new FileContent(MIME_TYPE, file);
+    /**
+     * The content is streamed to the drive, the stream is closed by the upload
+     */
+    private InputStreamContent createContent(TrackDto track) throws IOException {
+        final TrackContentSource contentSource = contentSourceOf(track);
+        return new InputStreamContent(MIME_TYPE, contentSource.openStream())
+                .setLength(contentSource.getLength());
     }
 }
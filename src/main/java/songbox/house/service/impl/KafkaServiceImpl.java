@@ -1,20 +1,30 @@
 package songbox.house.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
+import songbox.house.domain.dto.FailedQueryDto;
 import songbox.house.service.KafkaService;
 
-import static songbox.house.service.KafkaConsumer.FAILED_QUERIES_TOPIC_NAME;
+import static songbox.house.service.KafkaConsumer.getFailedQueriesTopicName;
 
 @Slf4j
 @Data
 public class KafkaServiceImpl implements KafkaService {
 
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
-    public void sendToFailedQueries(String query) {
-        kafkaTemplate.send(FAILED_QUERIES_TOPIC_NAME, query);
+    public void sendToFailedQueries(FailedQueryDto failedQuery) {
+        try {
+            // all the queries of the user go to the same partition
+            kafkaTemplate.send(getFailedQueriesTopicName(failedQuery.getRetry()),
+                    String.valueOf(failedQuery.getUserId()), objectMapper.writeValueAsString(failedQuery));
+        } catch (JsonProcessingException e) {
+            log.error("Can't send failed query {}", failedQuery, e);
+        }
     }
 }
@@ -0,0 +1,124 @@
+package songbox.house.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import songbox.house.client.HttpTransport;
+import songbox.house.client.http.HttpRequest;
+import songbox.house.domain.dto.TrackContentSource;
+import songbox.house.service.TrackContentSpool;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Spool files are deleted when the source is released, the not released ones are deleted after the ttl
+ */
+@Service
+@Slf4j
+public class TrackContentSpoolImpl implements TrackContentSpool {
+
+    private static final String SPOOL_FILE_PREFIX = "track-";
+
+    private final HttpTransport httpTransport;
+    private final Clock clock;
+    private final Path spoolDir;
+    private final Duration ttl;
+
+    public TrackContentSpoolImpl(HttpTransport httpTransport, Clock clock,
+            @Value("${songbox.house.download.spool.dir:${java.io.tmpdir}/songbox-spool}") String spoolDir,
+            @Value("${songbox.house.download.spool.ttl.minutes:60}") Long ttlMinutes) {
+        this.httpTransport = httpTransport;
+        this.clock = clock;
+        this.spoolDir = Paths.get(spoolDir);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        try {
+            Files.createDirectories(this.spoolDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't create the spool dir " + spoolDir, e);
+        }
+    }
+
+    @Override
+    public Optional<TrackContentSource> download(String url) {
+        Path file = null;
+        try {
+            file = Files.createTempFile(spoolDir, SPOOL_FILE_PREFIX, ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                httpTransport.download(HttpRequest.get(url), out);
+            }
+            return Optional.of(new SpoolFileContentSource(file));
+        } catch (IOException e) {
+            log.error("Can't download {}", url, e);
+            deleteQuietly(file);
+            return Optional.empty();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${songbox.house.download.spool.cleanup.ms:600000}")
+    public void cleanUp() {
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            files.filter(this::isExpired).forEach(file -> {
+                log.warn("Spool file {} has not been released, deleting", file);
+                deleteQuietly(file);
+            });
+        } catch (IOException e) {
+            log.warn("Can't clean up the spool dir {}", spoolDir, e);
+        }
+    }
+
+    private boolean isExpired(Path file) {
+        try {
+            return clock.millis() - Files.getLastModifiedTime(file).toMillis() > ttl.toMillis();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Can't delete the spool file {}", file, e);
+        }
+    }
+
+    private static class SpoolFileContentSource implements TrackContentSource {
+        private final Path file;
+        private final long length;
+
+        SpoolFileContentSource(Path file) throws IOException {
+            this.file = file;
+            this.length = Files.size(file);
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return Files.newInputStream(file);
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public void release() {
+            deleteQuietly(file);
+        }
+    }
+}
@@ -1,25 +1,37 @@
 package songbox.house.service.impl;
 
+import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
+import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOCase;
 import org.apache.commons.io.filefilter.NameFileFilter;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import songbox.house.domain.entity.Genre;
 import songbox.house.domain.entity.Track;
+import songbox.house.service.TrackContentStore;
 import songbox.house.service.TrackExportService;
 
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.Set;
 
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static lombok.AccessLevel.PRIVATE;
+
 @Service
 @Slf4j
+@AllArgsConstructor
+@FieldDefaults(makeFinal = true, level = PRIVATE)
 public class TrackExportServiceImpl implements TrackExportService {
 
+    TrackContentStore trackContentStore;
+
     @Override
     @SneakyThrows
     public void exportTrack(final Track track, final File collectionFolder,
@@ -65,8 +77,9 @@ public class TrackExportServiceImpl implements TrackExportService {
             log.info("Track \"{}\" already exists in the folder \"{}\". Skipping export.", track.getFileName(), folder.getName());
         } else {
             final File trackFile = new File(folder, track.getFileName());
-            final byte[] content = track.getContent().getContent();
-            FileUtils.writeByteArrayToFile(trackFile, content);
+            try (FileChannel out = FileChannel.open(trackFile.toPath(), CREATE, TRUNCATE_EXISTING, WRITE)) {
+                trackContentStore.open(track.getContent()).transferTo(out);
+            }
         }
     }
 }
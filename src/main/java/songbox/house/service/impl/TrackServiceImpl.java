@@ -15,15 +15,18 @@ import songbox.house.domain.entity.Author;
 import songbox.house.domain.entity.Genre;
 import songbox.house.domain.entity.MusicCollection;
 import songbox.house.domain.entity.Track;
-import songbox.house.domain.entity.TrackContent;
 import songbox.house.exception.AccessDeniedException;
 import songbox.house.exception.NotExistsException;
 import songbox.house.repository.GenreRepository;
 import songbox.house.repository.TrackRepository;
 import songbox.house.service.AuthorService;
 import songbox.house.service.MusicCollectionService;
+import songbox.house.service.TrackContentStore;
 import songbox.house.service.TrackService;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -47,17 +50,19 @@ public class TrackServiceImpl implements TrackService {
     MusicCollectionService collectionService;
     AuthorService authorService;
     TrackConverter trackConverter;
+    TrackContentStore trackContentStore;
     boolean saveToDBEnabled;
 
     public TrackServiceImpl(TrackRepository trackRepository, GenreRepository genreRepository,
             MusicCollectionService collectionService, AuthorService authorService,
-            TrackConverter trackConverter,
+            TrackConverter trackConverter, TrackContentStore trackContentStore,
             @Value("${songbox.house.vk.download.save_to_db.enabled:true}") boolean saveToDBEnabled) {
         this.trackRepository = trackRepository;
         this.genreRepository = genreRepository;
         this.collectionService = collectionService;
         this.authorService = authorService;
         this.trackConverter = trackConverter;
+        this.trackContentStore = trackContentStore;
         this.saveToDBEnabled = saveToDBEnabled;
     }
 
@@ -160,10 +165,17 @@ public class TrackServiceImpl implements TrackService {
         }
     }
 
+    @Override
+    public void setArtworkUrl(final Long trackId, final String artworkUrl) {
+        trackRepository.setArtworkUrl(trackId, artworkUrl);
+    }
+
     private void setContent(final byte[] content, final Track track) {
-        final TrackContent trackContent = new TrackContent();
-        trackContent.setContent(content);
-        track.setContent(trackContent);
+        try {
+            track.setContent(trackContentStore.put(new ByteArrayInputStream(content)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     private boolean existsInCollection(final Set<MusicCollection> collections, final Long collectionId) {
@@ -20,7 +20,7 @@ import songbox.house.service.MusicCollectionService;
 import songbox.house.service.UserService;
 import songbox.house.service.YoutubeApiService;
 import songbox.house.service.YoutubePlaylistService;
-import songbox.house.service.search.TrackDownloadService;
+import songbox.house.service.search.DownloadJobService;
 import songbox.house.util.ArtistsTitle;
 
 import java.util.List;
@@ -44,7 +44,7 @@ public class YoutubePlaylistServiceImpl implements YoutubePlaylistService {
     YoutubeApiService youtubeApiService;
     UserService userService;
     MusicCollectionService musicCollectionService;
-    TrackDownloadService trackDownloadService;
+    DownloadJobService downloadJobService;
 
     @Override
     public YoutubePlaylist getByYoutubeId(String youtubePlaylistId) {
@@ -74,10 +74,11 @@ public class YoutubePlaylistServiceImpl implements YoutubePlaylistService {
     public void sync(String playlistId, String collectionName, boolean only320) {
         List<YoutubePlaylistItem> items = youtubeApiService.getItems(playlistId);
 
-        items.stream()
+        List<SearchRequestDto> searchRequests = items.stream()
                 .map(YoutubePlaylistItem::getTitle)
                 .map(youtubeTitle -> createSearchRequest(youtubeTitle, collectionName, only320))
-                .forEach(trackDownloadService::searchAndDownloadAsync);
+                .collect(toList());
+        downloadJobService.submit("Youtube playlist " + playlistId, searchRequests);
     }
 
     private SearchRequestDto createSearchRequest(String youtubeTitle, String collectionName, boolean only320) {
@@ -0,0 +1,41 @@
+package songbox.house.service.search;
+
+import songbox.house.domain.dto.DownloadJobProgressDto;
+import songbox.house.domain.dto.request.SearchRequestDto;
+import songbox.house.domain.entity.DownloadJob;
+
+import java.util.List;
+
+/**
+ * Bulk downloads of the current user. The tasks are persisted and downloaded by the worker pool, so the jobs are
+ * resumed after the restart.
+ */
+public interface DownloadJobService {
+
+    /**
+     * The job isn't finished until {@link #allTasksAdded(Long)}, so the tasks can be added while they're downloaded
+     */
+    DownloadJob create(String name);
+
+    void addTasks(Long jobId, List<SearchRequestDto> searchRequests);
+
+    void allTasksAdded(Long jobId);
+
+    default DownloadJob submit(String name, List<SearchRequestDto> searchRequests) {
+        final DownloadJob job = create(name);
+        try {
+            addTasks(job.getId(), searchRequests);
+        } finally {
+            allTasksAdded(job.getId());
+        }
+        return job;
+    }
+
+    void pause(Long jobId);
+
+    void resume(Long jobId);
+
+    DownloadJobProgressDto getProgress(Long jobId);
+
+    List<DownloadJobProgressDto> getAllProgress();
+}
@@ -0,0 +1,10 @@
+package songbox.house.service.search;
+
+import songbox.house.domain.dto.FailedQueryDto;
+
+public interface FailedQueryReprocessService {
+    /**
+     * The query is reprocessed in the next micro batch after {@code failedQuery.notBefore}
+     */
+    void add(FailedQueryDto failedQuery);
+}
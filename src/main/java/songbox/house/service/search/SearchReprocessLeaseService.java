@@ -0,0 +1,22 @@
+package songbox.house.service.search;
+
+public interface SearchReprocessLeaseService {
+    /**
+     * Only one node gets the user in the run, the user is taken again only if the lease has expired
+     */
+    boolean tryAcquire(Long userId, String runId);
+
+    /**
+     * Moves the lease expiration further, so the long reprocessing keeps the user
+     *
+     * @return false if the lease has been taken by another node or completed
+     */
+    boolean extend(Long userId, String runId);
+
+    void complete(Long userId, String runId);
+
+    /**
+     * The user is reprocessed by a scheduled run right now
+     */
+    boolean isLeased(Long userId);
+}
@@ -31,4 +31,13 @@ public interface SearchReprocessService {
     void reprocessAllUsers();
 
     void reprocess(Long userId);
+
+    /**
+     * Reprocesses the searches of the failed queries, if the user has the search reprocessing enabled and isn't
+     * reprocessed by the scheduled run right now
+     *
+     * @return ids of the searches which are still not found, all of them if the user is reprocessed by the scheduled
+     * run
+     */
+    Set<Long> reprocess(Long userId, Set<Long> searchReprocessIds);
 }
@@ -0,0 +1,32 @@
+package songbox.house.service.search;
+
+import songbox.house.domain.dto.response.TrackMetadataDto;
+
+import java.util.List;
+import java.util.Set;
+
+public interface SearchResultListener {
+    /**
+     * Called each time one of the search services answered with non empty result
+     *
+     * @param songs songs found by the search service, sorted from best to worst match
+     */
+    default void onResult(List<TrackMetadataDto> songs) {
+    }
+
+    /**
+     * Called when some of the search services have not answered before the search deadline and were cancelled
+     *
+     * @param serviceNames names of the cancelled search services
+     */
+    default void onCutOff(Set<String> serviceNames) {
+    }
+
+    /**
+     * Called once, when all search services answered or timed out
+     *
+     * @param songs all found songs, sorted from best to worst match
+     */
+    default void onComplete(List<TrackMetadataDto> songs) {
+    }
+}
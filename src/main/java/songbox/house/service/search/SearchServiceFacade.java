@@ -10,7 +10,22 @@ public interface SearchServiceFacade {
 
     List<TrackMetadataDto> searchFast(SearchQueryDto query);
 
+    /**
+     * Full search of the query which has not been found before. The cached not found result is ignored, so the retry
+     * always reaches the search services. Nothing is sent to the reprocessing.
+     */
+    List<TrackMetadataDto> searchAgain(SearchQueryDto query);
+
     default List<TrackMetadataDto> search(SearchQueryDto query, boolean isFast) {
         return isFast ? searchFast(query) : search(query);
     }
+
+    /**
+     * Streaming search, results of every search service are passed to the listener as soon as they arrive
+     *
+     * @param query    search query
+     * @param isFast   use fast search
+     * @param listener receives sorted result of each search service and the final sorted result
+     */
+    void search(SearchQueryDto query, boolean isFast, SearchResultListener listener);
 }
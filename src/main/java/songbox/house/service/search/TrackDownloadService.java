@@ -15,6 +15,11 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 public interface TrackDownloadService {
     Optional<TrackDto> searchAndDownload(final SearchRequestDto searchRequest);
 
+    /**
+     * Saves to the collection of the owner, doesn't need the current user
+     */
+    Optional<TrackDto> searchAndDownload(final SearchRequestDto searchRequest, final Long ownerId);
+
     Optional<TrackDto> download(TrackMetadataDto trackMetadataDto, Long collectionId, Long ownerId,
             Set<String> genres);
 
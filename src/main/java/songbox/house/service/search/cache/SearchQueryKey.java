@@ -0,0 +1,29 @@
+package songbox.house.service.search.cache;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import songbox.house.domain.dto.request.SearchQueryDto;
+import songbox.house.util.ArtistsTitle;
+
+import static songbox.house.util.StringUtils.normalize;
+
+@Data
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SearchQueryKey {
+    String artists;
+    String title;
+    boolean fast;
+    // the empty fast result is searched again by the full search
+    boolean fullSearchFallback;
+    boolean lowQuality;
+    boolean fetchArtwork;
+
+    public static SearchQueryKey of(SearchQueryDto query, boolean fast, boolean fullSearchFallback) {
+        final ArtistsTitle artistsTitle = ArtistsTitle.parse(query.getQuery());
+        return new SearchQueryKey(normalize(artistsTitle.getArtists()), normalize(artistsTitle.getTitle()), fast,
+                fast && fullSearchFallback, query.isLowQuality(), query.isFetchArtwork());
+    }
+}
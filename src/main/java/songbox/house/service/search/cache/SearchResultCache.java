@@ -0,0 +1,104 @@
+package songbox.house.service.search.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import songbox.house.domain.dto.response.TrackMetadataDto;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.stream.Collectors.toList;
+import static org.springframework.beans.BeanUtils.copyProperties;
+
+/**
+ * Search results by normalized query. Empty results are kept in the separate cache with the shorter TTL, so the
+ * track which appears on the sources becomes searchable soon.
+ */
+@Component
+public class SearchResultCache {
+
+    private final Cache<SearchQueryKey, List<TrackMetadataDto>> found;
+    private final Cache<SearchQueryKey, Boolean> notFound;
+
+    public SearchResultCache(MeterRegistry meterRegistry,
+            @Value("${songbox.house.search.cache.size:1000}") Integer size,
+            @Value("${songbox.house.search.cache.ttl.minutes:60}") Integer ttlMinutes,
+            @Value("${songbox.house.search.cache.not_found.size:1000}") Integer notFoundSize,
+            @Value("${songbox.house.search.cache.not_found.ttl.minutes:10}") Integer notFoundTtlMinutes) {
+        this.found = newBuilder()
+                .maximumSize(size)
+                .expireAfterWrite(ttlMinutes, MINUTES)
+                .recordStats()
+                .build();
+        this.notFound = newBuilder()
+                .maximumSize(notFoundSize)
+                .expireAfterWrite(notFoundTtlMinutes, MINUTES)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, found, "search.result");
+        GuavaCacheMetrics.monitor(meterRegistry, notFound, "search.result.not_found");
+    }
+
+    public Optional<List<TrackMetadataDto>> get(SearchQueryKey key) {
+        final Optional<List<TrackMetadataDto>> songs = getFound(key);
+        if (songs.isPresent()) {
+            return songs;
+        }
+        if (notFound.getIfPresent(key) != null) {
+            return Optional.of(newArrayList());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Only the not empty result, the not found query is searched again
+     */
+    public Optional<List<TrackMetadataDto>> getFound(SearchQueryKey key) {
+        // callers sort and modify the result list and the songs
+        return Optional.ofNullable(found.getIfPresent(key)).map(SearchResultCache::copyOf);
+    }
+
+    public void put(SearchQueryKey key, List<TrackMetadataDto> songs) {
+        if (songs.isEmpty()) {
+            notFound.put(key, true);
+        } else {
+            found.put(key, copyOf(songs));
+        }
+    }
+
+    /**
+     * Replaces the cached songs by the updated copy, if they're still cached
+     */
+    public void update(SearchQueryKey key, UnaryOperator<List<TrackMetadataDto>> update) {
+        found.asMap().computeIfPresent(key, (cachedKey, songs) -> update.apply(copyOf(songs)));
+    }
+
+    /**
+     * The cached songs are never given out, so the copies can be modified by the callers
+     */
+    public static List<TrackMetadataDto> copyOf(List<TrackMetadataDto> songs) {
+        return songs.stream()
+                .map(song -> {
+                    final TrackMetadataDto copy = new TrackMetadataDto();
+                    copyProperties(song, copy);
+                    return copy;
+                })
+                .collect(toList());
+    }
+
+    public CacheStats getStats() {
+        return found.stats();
+    }
+
+    public CacheStats getNotFoundStats() {
+        return notFound.stats();
+    }
+}
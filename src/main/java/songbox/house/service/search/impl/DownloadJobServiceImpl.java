@@ -0,0 +1,161 @@
+package songbox.house.service.search.impl;
+
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import songbox.house.domain.dto.DownloadJobProgressDto;
+import songbox.house.domain.dto.request.SearchRequestDto;
+import songbox.house.domain.entity.DownloadJob;
+import songbox.house.domain.entity.DownloadTask;
+import songbox.house.domain.entity.DownloadTaskStatus;
+import songbox.house.exception.AccessDeniedException;
+import songbox.house.exception.NotExistsException;
+import songbox.house.repository.DownloadJobRepository;
+import songbox.house.repository.DownloadTaskRepository;
+import songbox.house.service.MusicCollectionService;
+import songbox.house.service.UserService;
+import songbox.house.service.search.DownloadJobService;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.join;
+import static java.text.MessageFormat.format;
+import static java.util.Collections.emptySet;
+import static java.util.Objects.isNull;
+import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.toList;
+import static lombok.AccessLevel.PRIVATE;
+import static org.springframework.transaction.annotation.Propagation.REQUIRES_NEW;
+import static songbox.house.domain.entity.DownloadJobStatus.IN_PROGRESS;
+import static songbox.house.domain.entity.DownloadJobStatus.PAUSED;
+import static songbox.house.domain.entity.DownloadTaskStatus.CLAIMED;
+import static songbox.house.domain.entity.DownloadTaskStatus.DOWNLOADED;
+import static songbox.house.domain.entity.DownloadTaskStatus.FAILED;
+import static songbox.house.domain.entity.DownloadTaskStatus.NOT_FOUND;
+import static songbox.house.domain.entity.DownloadTaskStatus.PENDING;
+
+/**
+ * Jobs and tasks are committed in their own transactions, so the workers see the tasks while the job is created
+ */
+@Service
+@Slf4j
+@AllArgsConstructor
+@FieldDefaults(makeFinal = true, level = PRIVATE)
+public class DownloadJobServiceImpl implements DownloadJobService {
+
+    DownloadJobRepository jobRepository;
+    DownloadTaskRepository taskRepository;
+    UserService userService;
+    MusicCollectionService collectionService;
+
+    @Override
+    @Transactional(propagation = REQUIRES_NEW)
+    public DownloadJob create(String name) {
+        final DownloadJob job = new DownloadJob();
+        job.setName(name);
+        job.setOwnerId(userService.getCurrentUser().getUserId());
+        final DownloadJob saved = jobRepository.save(job);
+        log.info("Created download job {} \"{}\"", saved.getId(), name);
+        return saved;
+    }
+
+    /**
+     * The tasks are downloaded by the workers without the user context, so the default collection of the current user
+     * is resolved here for the requests without the collection
+     */
+    @Override
+    @Transactional(propagation = REQUIRES_NEW)
+    public void addTasks(Long jobId, List<SearchRequestDto> searchRequests) {
+        final DownloadJob job = getJob(jobId);
+        final Long defaultCollectionId = searchRequests.stream().anyMatch(request -> isNull(request.getCollectionId()))
+                ? collectionService.getOrCreateDefault().getCollectionId()
+                : null;
+        final List<DownloadTask> tasks = searchRequests.stream()
+                .map(searchRequest -> createTask(job, searchRequest, defaultCollectionId))
+                .collect(toList());
+        taskRepository.saveAll(tasks);
+        log.debug("Added {} tasks to download job {}", tasks.size(), jobId);
+    }
+
+    @Override
+    @Transactional(propagation = REQUIRES_NEW)
+    public void allTasksAdded(Long jobId) {
+        jobRepository.setAllTasksAdded(jobId);
+    }
+
+    @Override
+    @Transactional
+    public void pause(Long jobId) {
+        getOwnJob(jobId);
+        jobRepository.setStatus(jobId, IN_PROGRESS, PAUSED);
+    }
+
+    @Override
+    @Transactional
+    public void resume(Long jobId) {
+        getOwnJob(jobId);
+        jobRepository.setStatus(jobId, PAUSED, IN_PROGRESS);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DownloadJobProgressDto getProgress(Long jobId) {
+        return toProgress(getOwnJob(jobId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DownloadJobProgressDto> getAllProgress() {
+        return jobRepository.findByOwnerIdOrderByCreatedAtDesc(userService.getCurrentUser().getUserId()).stream()
+                .map(this::toProgress)
+                .collect(toList());
+    }
+
+    private DownloadJobProgressDto toProgress(DownloadJob job) {
+        final Map<DownloadTaskStatus, Long> counts = new EnumMap<>(DownloadTaskStatus.class);
+        taskRepository.countByStatus(job.getId())
+                .forEach(row -> counts.put((DownloadTaskStatus) row[0], ((Number) row[1]).longValue()));
+
+        final DownloadJobProgressDto progress = new DownloadJobProgressDto();
+        progress.setJobId(job.getId());
+        progress.setName(job.getName());
+        progress.setStatus(job.getStatus());
+        progress.setCreatedAt(job.getCreatedAt());
+        progress.setFinishedAt(job.getFinishedAt());
+        progress.setTotal(counts.values().stream().mapToLong(Long::longValue).sum());
+        progress.setPending(counts.getOrDefault(PENDING, 0L) + counts.getOrDefault(CLAIMED, 0L));
+        progress.setDownloaded(counts.getOrDefault(DOWNLOADED, 0L));
+        progress.setNotFound(counts.getOrDefault(NOT_FOUND, 0L));
+        progress.setFailed(counts.getOrDefault(FAILED, 0L));
+        return progress;
+    }
+
+    private DownloadTask createTask(DownloadJob job, SearchRequestDto searchRequest, Long defaultCollectionId) {
+        final DownloadTask task = new DownloadTask();
+        task.setJobId(job.getId());
+        task.setOwnerId(job.getOwnerId());
+        task.setArtists(searchRequest.getArtists());
+        task.setTitle(searchRequest.getTitle());
+        task.setCollectionId(ofNullable(searchRequest.getCollectionId()).orElse(defaultCollectionId));
+        task.setGenres(join(",", ofNullable(searchRequest.getGenres()).orElse(emptySet())));
+        task.setOnly320(searchRequest.isOnly320());
+        return task;
+    }
+
+    private DownloadJob getOwnJob(Long jobId) {
+        final DownloadJob job = getJob(jobId);
+        if (!job.getOwnerId().equals(userService.getCurrentUser().getUserId())) {
+            throw new AccessDeniedException("User have not permissions to manage download job");
+        }
+        return job;
+    }
+
+    private DownloadJob getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new NotExistsException(format("Download job with id {0} not exists!", jobId)));
+    }
+}
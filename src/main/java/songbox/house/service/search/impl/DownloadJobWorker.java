@@ -0,0 +1,219 @@
+package songbox.house.service.search.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import songbox.house.domain.dto.request.SearchRequestDto;
+import songbox.house.domain.entity.DownloadTask;
+import songbox.house.domain.entity.DownloadTaskStatus;
+import songbox.house.repository.DownloadJobRepository;
+import songbox.house.repository.DownloadTaskRepository;
+import songbox.house.service.search.TrackDownloadService;
+import songbox.house.util.ExecutorUtil;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+import static java.lang.Math.min;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static lombok.AccessLevel.PRIVATE;
+import static org.springframework.transaction.TransactionDefinition.PROPAGATION_REQUIRES_NEW;
+import static songbox.house.domain.entity.DownloadTaskStatus.DOWNLOADED;
+import static songbox.house.domain.entity.DownloadTaskStatus.FAILED;
+import static songbox.house.domain.entity.DownloadTaskStatus.NOT_FOUND;
+import static songbox.house.domain.entity.DownloadTaskStatus.PENDING;
+
+/**
+ * Downloads the tasks of the jobs in progress by {@code songbox.house.download.job.threads} workers. The tasks are
+ * claimed from the db only while the buffer of {@code songbox.house.download.job.buffer.size} has free space, so
+ * the memory doesn't depend on the size of the jobs. The claim expires after
+ * {@code songbox.house.download.job.claim.ttl.minutes}, so the tasks of the stopped node are downloaded again. Every
+ * claim has its own token, the task is started and completed only by the last claim, so the task which has waited
+ * in the buffer longer than the ttl and has been claimed again isn't downloaded twice.
+ */
+@Component
+@Slf4j
+@FieldDefaults(makeFinal = true, level = PRIVATE)
+public class DownloadJobWorker {
+
+    TrackDownloadService trackDownloadService;
+    DownloadJobRepository jobRepository;
+    DownloadTaskRepository taskRepository;
+    TransactionTemplate transactionTemplate;
+    MeterRegistry meterRegistry;
+    Clock clock;
+    BlockingQueue<DownloadTask> buffer;
+    ExecutorService workers;
+    Integer threads;
+    Duration claimTtl;
+    Integer maxRetries;
+    Duration retryBackoff;
+
+    public DownloadJobWorker(TrackDownloadService trackDownloadService, DownloadJobRepository jobRepository,
+            DownloadTaskRepository taskRepository, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry, Clock clock,
+            @Value("${songbox.house.download.job.threads:4}") Integer threads,
+            @Value("${songbox.house.download.job.buffer.size:20}") Integer bufferSize,
+            @Value("${songbox.house.download.job.claim.ttl.minutes:30}") Long claimTtlMinutes,
+            @Value("${songbox.house.download.job.max.retries:3}") Integer maxRetries,
+            @Value("${songbox.house.download.job.retry.backoff.minutes:10}") Long retryBackoffMinutes) {
+        this.trackDownloadService = trackDownloadService;
+        this.jobRepository = jobRepository;
+        this.taskRepository = taskRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.threads = threads;
+        this.workers = ExecutorServiceMetrics.monitor(meterRegistry, ExecutorUtil.createExecutorService(threads),
+                "download.job");
+        this.claimTtl = Duration.ofMinutes(claimTtlMinutes);
+        this.maxRetries = maxRetries;
+        this.retryBackoff = Duration.ofMinutes(retryBackoffMinutes);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < threads; i++) {
+            workers.submit(this::work);
+        }
+    }
+
+    /**
+     * Only this method adds to the buffer, so the claimed tasks always fit into it
+     */
+    @Scheduled(fixedDelayString = "${songbox.house.download.job.poll.ms:5000}")
+    public void poll() {
+        final Instant now = clock.instant();
+        final int capacity = buffer.remainingCapacity();
+        final List<DownloadTask> claimed = capacity > 0
+                ? transactionTemplate.execute(status -> claim(now, capacity))
+                : emptyList();
+        buffer.addAll(claimed);
+
+        final int finished = transactionTemplate.execute(status -> jobRepository.finishDone(Date.from(now)));
+        if (finished > 0) {
+            log.info("Finished {} download jobs", finished);
+        }
+    }
+
+    /**
+     * The buffered tasks are returned to the db, the tasks being downloaded are claimed again after the ttl
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        final List<DownloadTask> notStarted = new ArrayList<>();
+        buffer.drainTo(notStarted);
+        if (!notStarted.isEmpty()) {
+            transactionTemplate.execute(status -> {
+                notStarted.stream()
+                        .collect(groupingBy(DownloadTask::getClaimToken, mapping(DownloadTask::getId, toSet())))
+                        .forEach(taskRepository::release);
+                return null;
+            });
+        }
+    }
+
+    private List<DownloadTask> claim(Instant now, int limit) {
+        final List<Long> ids = taskRepository.lockDue(Date.from(now), limit).stream()
+                .map(Number::longValue)
+                .collect(toList());
+        if (ids.isEmpty()) {
+            return emptyList();
+        }
+        taskRepository.setClaimed(Date.from(now.plus(claimTtl)), UUID.randomUUID().toString(), ids);
+        final List<DownloadTask> tasks = new ArrayList<>();
+        taskRepository.findAllById(ids).forEach(tasks::add);
+        log.debug("Claimed {} download tasks", tasks.size());
+        return tasks;
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                process(buffer.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Can't process the download task", e);
+            }
+        }
+    }
+
+    private void process(DownloadTask task) {
+        if (!renewClaim(task)) {
+            log.debug("Download task {} has been claimed again, skipping", task.getId());
+            return;
+        }
+
+        DownloadTaskStatus outcome;
+        try {
+            final boolean downloaded = trackDownloadService.searchAndDownload(toSearchRequest(task), task.getOwnerId())
+                    .isPresent();
+            outcome = downloaded ? DOWNLOADED : NOT_FOUND;
+        } catch (RuntimeException e) {
+            log.warn("Can't download {} - {} of job {}, attempt {}", task.getArtists(), task.getTitle(),
+                    task.getJobId(), task.getRetries() + 1, e);
+            outcome = task.getRetries() + 1 < maxRetries ? PENDING : FAILED;
+        }
+
+        final DownloadTaskStatus status = outcome;
+        final int updated = transactionTemplate.execute(tx -> status == PENDING
+                ? taskRepository.retryLater(task.getId(), task.getClaimToken(),
+                        Date.from(clock.instant().plus(getBackoff(task))))
+                : taskRepository.complete(task.getId(), task.getClaimToken(), status));
+        if (updated == 0) {
+            log.warn("Claim of download task {} has expired while it was downloaded", task.getId());
+        }
+        meterRegistry.counter("songbox.download.job.tasks",
+                "outcome", status == PENDING ? "retry" : status.name().toLowerCase()).increment();
+    }
+
+    /**
+     * The claim gets the full ttl when the download starts, the time spent in the buffer doesn't count
+     */
+    private boolean renewClaim(DownloadTask task) {
+        return transactionTemplate.execute(tx -> taskRepository.renewClaim(task.getId(), task.getClaimToken(),
+                Date.from(clock.instant().plus(claimTtl)))) > 0;
+    }
+
+    private Duration getBackoff(DownloadTask task) {
+        return retryBackoff.multipliedBy(1L << min(task.getRetries(), 20));
+    }
+
+    private SearchRequestDto toSearchRequest(DownloadTask task) {
+        final SearchRequestDto searchRequest = new SearchRequestDto();
+        searchRequest.setArtists(task.getArtists());
+        searchRequest.setTitle(task.getTitle());
+        searchRequest.setCollectionId(task.getCollectionId());
+        searchRequest.setOnly320(task.getOnly320());
+        searchRequest.setGenres(Stream.of(task.getGenres().split(","))
+                .filter(StringUtils::isNotBlank)
+                .collect(toSet()));
+        return searchRequest;
+    }
+}
@@ -1,5 +1,7 @@
 package songbox.house.service.search.impl;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,16 +9,20 @@ import org.springframework.stereotype.Service;
 import songbox.house.domain.dto.request.SearchQueryDto;
 import songbox.house.domain.dto.response.TrackDto;
 import songbox.house.domain.dto.response.TrackMetadataDto;
-import songbox.house.service.DiscogsWebsiteService;
+import songbox.house.service.ArtworkService;
 import songbox.house.service.download.DownloadService;
 import songbox.house.service.search.DownloadServiceFacade;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import static java.lang.System.currentTimeMillis;
 import static java.util.Comparator.comparingInt;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static lombok.AccessLevel.PRIVATE;
-import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.springframework.util.ClassUtils.getUserClass;
 
 @Service
 @FieldDefaults(makeFinal = true, level = PRIVATE)
@@ -24,22 +30,25 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 public class DownloadServiceFacadeImpl implements DownloadServiceFacade {
 
     List<DownloadService> downloadServices;
-    DiscogsWebsiteService discogsWebsiteService;
+    ArtworkService artworkService;
+    MeterRegistry meterRegistry;
 
     @Autowired
     public DownloadServiceFacadeImpl(List<DownloadService> downloadServices,
-            DiscogsWebsiteService discogsWebsiteService) {
+            ArtworkService artworkService, MeterRegistry meterRegistry) {
         this.downloadServices = downloadServices;
-        this.discogsWebsiteService = discogsWebsiteService;
+        this.artworkService = artworkService;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
     public Optional<TrackDto> download(SearchQueryDto searchQuery) {
-        final String artworkUrl = discogsWebsiteService.searchArtwork(searchQuery.getQuery()).orElse(null);
+        final String artworkUrl = getCachedArtwork(searchQuery.getQuery()).orElse(null);
 
         return downloadServices.stream()
                 .max(comparingInt(DownloadService::getDownloadPriority))
-                .flatMap(downloadService -> downloadService.download(searchQuery, artworkUrl));
+                .flatMap(downloadService -> measured(downloadService,
+                        () -> downloadService.download(searchQuery, artworkUrl)));
     }
 
     @Override
@@ -50,13 +59,42 @@ public class DownloadServiceFacadeImpl implements DownloadServiceFacade {
         return downloadServices.stream()
                 .filter(service -> service.canDownload(serviceName))
                 .max(comparingInt(DownloadService::getDownloadPriority))
-                .flatMap(downloadService -> downloadService.download(trackMetadataDto));
+                .flatMap(downloadService -> measured(downloadService,
+                        () -> downloadService.download(trackMetadataDto)));
+    }
+
+    private Optional<TrackDto> measured(DownloadService downloadService, Supplier<Optional<TrackDto>> download) {
+        final String serviceName = getUserClass(downloadService).getSimpleName();
+        final long start = currentTimeMillis();
+        final Optional<TrackDto> track = download.get();
+
+        meterRegistry.timer("songbox.download.duration", "service", serviceName,
+                "outcome", track.isPresent() ? "found" : "not_found")
+                .record(currentTimeMillis() - start, MILLISECONDS);
+        track.map(TrackDto::getSizeBytes)
+                .ifPresent(sizeBytes -> DistributionSummary.builder("songbox.download.bytes")
+                        .baseUnit("bytes")
+                        .tag("service", serviceName)
+                        .register(meterRegistry)
+                        .record(sizeBytes));
+        return track;
     }
 
     private void searchArtworkIfNeed(TrackMetadataDto trackMetadataDto) {
-        if (isNotBlank(trackMetadataDto.getThumbnail())) {
+        if (isBlank(trackMetadataDto.getThumbnail())) {
             final String searchQuery = trackMetadataDto.getArtistsTitle().toString();
-            discogsWebsiteService.searchArtwork(searchQuery).ifPresent(trackMetadataDto::setThumbnail);
+            getCachedArtwork(searchQuery).ifPresent(trackMetadataDto::setThumbnail);
+        }
+    }
+
+    /**
+     * Doesn't wait for the artwork lookup, the track gets the artwork after it's saved
+     */
+    private Optional<String> getCachedArtwork(String searchQuery) {
+        final Optional<String> artworkUrl = artworkService.getCached(searchQuery);
+        if (!artworkUrl.isPresent()) {
+            artworkService.searchAsync(searchQuery);
         }
+        return artworkUrl;
     }
 }
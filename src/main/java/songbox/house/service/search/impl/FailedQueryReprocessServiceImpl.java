@@ -0,0 +1,124 @@
+package songbox.house.service.search.impl;
+
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import songbox.house.domain.dto.FailedQueryDto;
+import songbox.house.service.KafkaService;
+import songbox.house.service.search.FailedQueryReprocessService;
+import songbox.house.service.search.SearchReprocessService;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.collect.Lists.partition;
+import static java.util.stream.Collectors.toSet;
+import static lombok.AccessLevel.PRIVATE;
+import static songbox.house.service.KafkaConsumer.getRetriesCount;
+import static songbox.house.service.KafkaConsumer.getRetryDelay;
+
+/**
+ * Failed queries are deduplicated by the search reprocess and reprocessed by the users in micro batches. Not found
+ * query goes to the next retry topic, after the last one it's left for the scheduled reprocessing. Pending queries are
+ * not persisted, the lost ones are reprocessed by the schedule as well.
+ */
+@Service
+@Slf4j
+@FieldDefaults(makeFinal = true, level = PRIVATE)
+public class FailedQueryReprocessServiceImpl implements FailedQueryReprocessService {
+
+    SearchReprocessService searchReprocessService;
+    KafkaService kafkaService;
+    Clock clock;
+    // by search reprocess id
+    ConcurrentMap<Long, FailedQueryDto> pending = new ConcurrentHashMap<>();
+    Integer maxPending;
+    Integer batchSize;
+
+    public FailedQueryReprocessServiceImpl(SearchReprocessService searchReprocessService, KafkaService kafkaService,
+            Clock clock,
+            @Value("${songbox.house.reprocess.failed.max.pending:10000}") Integer maxPending,
+            @Value("${songbox.house.reprocess.failed.batch.size:20}") Integer batchSize) {
+        this.searchReprocessService = searchReprocessService;
+        this.kafkaService = kafkaService;
+        this.clock = clock;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void add(FailedQueryDto failedQuery) {
+        final Long searchReprocessId = failedQuery.getSearchReprocessId();
+        if (failedQuery.getUserId() == null || searchReprocessId == null) {
+            log.debug("Failed query {} has no search reprocess, skipping", failedQuery.getQuery());
+            return;
+        }
+        if (pending.size() >= maxPending && !pending.containsKey(searchReprocessId)) {
+            log.warn("Too many pending failed queries, {} is left for the scheduled reprocessing",
+                    failedQuery.getQuery());
+            return;
+        }
+        // the duplicate keeps the earliest attempt
+        pending.merge(searchReprocessId, failedQuery,
+                (current, duplicate) -> getNotBefore(current) <= getNotBefore(duplicate) ? current : duplicate);
+    }
+
+    @Scheduled(fixedDelayString = "${songbox.house.reprocess.failed.batch.interval.ms:10000}")
+    public void reprocessDue() {
+        final long now = clock.millis();
+        final Map<Long, List<FailedQueryDto>> dueByUser = new HashMap<>();
+        pending.values().forEach(failedQuery -> {
+            if (getNotBefore(failedQuery) <= now && pending.remove(failedQuery.getSearchReprocessId(), failedQuery)) {
+                dueByUser.computeIfAbsent(failedQuery.getUserId(), userId -> new ArrayList<>()).add(failedQuery);
+            }
+        });
+
+        dueByUser.forEach((userId, failedQueries) -> partition(failedQueries, batchSize)
+                .forEach(batch -> reprocess(userId, batch)));
+    }
+
+    private void reprocess(Long userId, List<FailedQueryDto> batch) {
+        final Set<Long> searchReprocessIds = batch.stream()
+                .map(FailedQueryDto::getSearchReprocessId)
+                .collect(toSet());
+        try {
+            final Set<Long> notFound = searchReprocessService.reprocess(userId, searchReprocessIds);
+            log.info("Reprocessed {} failed queries of user {}, {} are still not found", batch.size(), userId,
+                    notFound.size());
+            batch.stream()
+                    .filter(failedQuery -> notFound.contains(failedQuery.getSearchReprocessId()))
+                    .forEach(this::retryLater);
+        } catch (RuntimeException e) {
+            log.error("Can't reprocess failed queries of user {}", userId, e);
+            batch.forEach(this::retryLater);
+        }
+    }
+
+    private void retryLater(FailedQueryDto failedQuery) {
+        final int retry = failedQuery.getRetry() == null ? 1 : failedQuery.getRetry() + 1;
+        if (retry > getRetriesCount()) {
+            log.debug("Failed query {} is left for the scheduled reprocessing", failedQuery.getQuery());
+            return;
+        }
+
+        final FailedQueryDto next = new FailedQueryDto();
+        next.setUserId(failedQuery.getUserId());
+        next.setSearchReprocessId(failedQuery.getSearchReprocessId());
+        next.setQuery(failedQuery.getQuery());
+        next.setRetry(retry);
+        next.setNotBefore(clock.millis() + getRetryDelay(retry).toMillis());
+        kafkaService.sendToFailedQueries(next);
+    }
+
+    private long getNotBefore(FailedQueryDto failedQuery) {
+        return failedQuery.getNotBefore() == null ? 0 : failedQuery.getNotBefore();
+    }
+}
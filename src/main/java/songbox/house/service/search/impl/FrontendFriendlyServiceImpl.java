@@ -137,13 +137,14 @@ public class FrontendFriendlyServiceImpl implements FrontendFriendlyService {
         List<TrackMetadataDto> songSearchResultList = getMetadata(useFastSearch, searchQuery, searchQueryWithoutLabel,
                 stepProgress);
 
-        songSearchResultList.sort(new SmartDiscogsComparator(expectedSongDto, expectedArtistTitle));
+        List<TrackMetadataDto> bestSongs = new SmartDiscogsComparator(expectedSongDto, expectedArtistTitle)
+                .top(songSearchResultList, DETAILED_INFO_MAX_SONG_SIZE);
 
         // Apply track Pos
-        List<SongDto> songDTOs = songSearchResultList.stream()
+        List<SongDto> songDTOs = bestSongs.stream()
                 .map(trackMetadataDto -> toSongDto(trackMetadataDto, expectedSongDto.getTrackPos()))
                 .collect(Collectors.toList());
-        songs.put(artistTitleDto, songDTOs.subList(0, Math.min(songDTOs.size(), DETAILED_INFO_MAX_SONG_SIZE)));
+        songs.put(artistTitleDto, songDTOs);
     }
 
     private List<TrackMetadataDto> getMetadata(boolean useFastSearch, SearchQueryDto searchQueryDto,
@@ -0,0 +1,163 @@
+package songbox.house.service.search.impl;
+
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import songbox.house.domain.dto.SearchReprocessResultDto;
+import songbox.house.repository.SearchReprocessRepository;
+import songbox.house.repository.SearchReprocessResultRepository;
+import songbox.house.service.search.TrackDownloadService;
+import songbox.house.util.ExecutorUtil;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static lombok.AccessLevel.PRIVATE;
+import static org.springframework.transaction.TransactionDefinition.PROPAGATION_REQUIRES_NEW;
+
+/**
+ * Downloads the reprocess results in parallel. Every download source has its own executor of
+ * {@code songbox.house.reprocess.download.threads}, which can be overridden for the source by
+ * {@code songbox.house.reprocess.download.<source>.threads}. Downloaded searches are committed by batches, so the
+ * progress is kept if the downloading fails in the middle. The downloads which are not finished in
+ * {@code songbox.house.reprocess.download.timeout.minutes} are cancelled and retried by the next reprocessing.
+ */
+@Component
+@Slf4j
+@FieldDefaults(makeFinal = true, level = PRIVATE)
+public class ReprocessResultDownloader {
+
+    private static final String PREFIX = "songbox.house.reprocess.download.";
+
+    TrackDownloadService downloadService;
+    SearchReprocessRepository repository;
+    SearchReprocessResultRepository reprocessResultRepository;
+    TransactionTemplate transactionTemplate;
+    Environment environment;
+    ConcurrentMap<String, ExecutorService> sourceExecutors = new ConcurrentHashMap<>();
+    Integer threads;
+    Integer batchSize;
+    long timeoutMs;
+
+    public ReprocessResultDownloader(TrackDownloadService downloadService, SearchReprocessRepository repository,
+            SearchReprocessResultRepository reprocessResultRepository, PlatformTransactionManager transactionManager,
+            Environment environment,
+            @Value("${songbox.house.reprocess.download.threads:2}") Integer threads,
+            @Value("${songbox.house.reprocess.download.batch.size:10}") Integer batchSize,
+            @Value("${songbox.house.reprocess.download.timeout.minutes:30}") Integer timeoutMinutes) {
+        this.downloadService = downloadService;
+        this.repository = repository;
+        this.reprocessResultRepository = reprocessResultRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(PROPAGATION_REQUIRES_NEW);
+        this.environment = environment;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.timeoutMs = MINUTES.toMillis(timeoutMinutes);
+    }
+
+    /**
+     * @return count of the downloaded tracks
+     */
+    public int download(Long userId, Map<Long, SearchReprocessResultDto> readyForDownloading) {
+        final long deadline = currentTimeMillis() + timeoutMs;
+        final BlockingQueue<Future<Optional<Long>>> completed = new LinkedBlockingQueue<>();
+        final List<Future<Optional<Long>>> submitted = new ArrayList<>(readyForDownloading.size());
+        final Set<Long> batch = new HashSet<>();
+        int downloaded = 0;
+        try {
+            readyForDownloading.forEach((searchReprocessId, resultDto) -> submitted.add(
+                    new ExecutorCompletionService<>(getExecutor(getSource(resultDto)), completed)
+                            .submit(() -> downloadOne(searchReprocessId, resultDto))));
+
+            for (int i = 0; i < submitted.size(); i++) {
+                final Future<Optional<Long>> future = completed.poll(deadline - currentTimeMillis(), MILLISECONDS);
+                if (future == null) {
+                    log.warn("Downloading of the reprocess results for user {} timed out, {} of {} are not finished",
+                            userId, submitted.size() - i, submitted.size());
+                    break;
+                }
+                take(future).ifPresent(batch::add);
+                if (batch.size() >= batchSize) {
+                    downloaded += commit(userId, batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            log.warn("Downloading of the reprocess results for user {} was interrupted", userId);
+            Thread.currentThread().interrupt();
+        } finally {
+            // not finished downloads stay not downloaded and are retried by the next reprocessing
+            submitted.forEach(future -> future.cancel(true));
+            downloaded += commit(userId, batch);
+        }
+        return downloaded;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sourceExecutors.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    private Optional<Long> downloadOne(Long searchReprocessId, SearchReprocessResultDto resultDto) {
+        return downloadService.download(resultDto.getTrackMetadata(), resultDto.getCollectionId(),
+                resultDto.getOwnerId(), resultDto.getGenres())
+                .map(track -> searchReprocessId);
+    }
+
+    private Optional<Long> take(Future<Optional<Long>> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            log.error("Can't download the reprocess result", e.getCause());
+            return Optional.empty();
+        }
+    }
+
+    private int commit(Long userId, Set<Long> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        final Set<Long> downloadedReprocessIds = new HashSet<>(batch);
+        batch.clear();
+
+        transactionTemplate.execute(status -> {
+            repository.setDownloaded(new Date(), downloadedReprocessIds);
+            return null;
+        });
+        reprocessResultRepository.remove(userId, downloadedReprocessIds);
+        return downloadedReprocessIds.size();
+    }
+
+    private ExecutorService getExecutor(String source) {
+        return sourceExecutors.computeIfAbsent(source, name -> {
+            final Integer sourceThreads = environment.getProperty(PREFIX + name + ".threads", Integer.class, threads);
+            log.info("Created reprocess download executor {} of {} threads", name, sourceThreads);
+            return ExecutorUtil.createExecutorService(sourceThreads);
+        });
+    }
+
+    private String getSource(SearchReprocessResultDto resultDto) {
+        return resultDto.getTrackMetadata().getUri().split(":")[0];
+    }
+}
@@ -0,0 +1,232 @@
+package songbox.house.service.search.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import songbox.house.domain.dto.request.SearchQueryDto;
+import songbox.house.domain.dto.response.SearchResultDto;
+import songbox.house.domain.dto.response.TrackMetadataDto;
+import songbox.house.service.search.SearchService;
+import songbox.house.service.search.source.SearchBulkheads;
+import songbox.house.service.search.source.SearchSourceMetrics;
+import songbox.house.service.search.source.SourceHealth;
+import songbox.house.service.search.source.SourceHealthRegistry;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.Math.max;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static songbox.house.service.search.source.SearchSources.getName;
+
+/**
+ * One search over all the search services: skips the services with open circuit breaker, hedges the slow ones,
+ * cancels everything which has not answered before the deadline. The service answers with its first successful call,
+ * the failed call doesn't cancel the other one. Every service is called in its own bulkhead, all
+ * the answers come to the one queue.
+ */
+@Slf4j
+class ScatterGatherSearch {
+
+    private final SearchQueryDto query;
+    private final boolean fast;
+    private final List<SearchService> searchServices;
+    private final SearchBulkheads searchBulkheads;
+    private final SourceHealthRegistry sourceHealthRegistry;
+    private final SearchSourceMetrics searchSourceMetrics;
+    private final BlockingQueue<Future<SearchResultDto>> completed = new LinkedBlockingQueue<>();
+
+    private final Map<Future<SearchResultDto>, SearchService> pending = new HashMap<>();
+    private final Map<SearchService, Long> startedAtMs = new HashMap<>();
+    private final Map<SearchService, Long> hedgeAtMs = new HashMap<>();
+    private final Set<SearchService> answered = new HashSet<>();
+    private final Set<String> rejected = new HashSet<>();
+    private final Set<String> breakerOpen = new HashSet<>();
+
+    ScatterGatherSearch(SearchQueryDto query, boolean fast, List<SearchService> searchServices,
+            SearchBulkheads searchBulkheads, SourceHealthRegistry sourceHealthRegistry,
+            SearchSourceMetrics searchSourceMetrics) {
+        this.query = query;
+        this.fast = fast;
+        this.searchServices = searchServices;
+        this.searchBulkheads = searchBulkheads;
+        this.sourceHealthRegistry = sourceHealthRegistry;
+        this.searchSourceMetrics = searchSourceMetrics;
+    }
+
+    List<TrackMetadataDto> execute(long timeoutMs, Consumer<List<TrackMetadataDto>> onServiceResult,
+            Set<String> cutOffServices) {
+        searchServices.forEach(this::submitIfHealthy);
+
+        // one deadline for all the services, so the slowest one can't add its timeout to every other
+        final long deadline = currentTimeMillis() + timeoutMs;
+        final List<TrackMetadataDto> songs = newArrayList();
+        boolean interrupted = false;
+        try {
+            long now;
+            while (!pending.isEmpty() && (now = currentTimeMillis()) < deadline) {
+                submitDueHedges(now);
+                final long wakeUpAt = hedgeAtMs.values().stream().reduce(deadline, Math::min);
+                final Future<SearchResultDto> future = completed.poll(max(1, wakeUpAt - now), MILLISECONDS);
+                if (future != null) {
+                    songs.addAll(take(future, onServiceResult));
+                }
+            }
+        } catch (InterruptedException e) {
+            log.warn("Search for {} was interrupted", query);
+            interrupted = true;
+            Thread.currentThread().interrupt();
+        }
+
+        cancelPending(timeoutMs, interrupted, cutOffServices);
+        if (!rejected.isEmpty()) {
+            log.warn("Search services {} are overloaded, skipped for {}", rejected, query);
+            cutOffServices.addAll(rejected);
+        }
+        if (!breakerOpen.isEmpty()) {
+            // the result without these services is not complete, just as without the rejected ones
+            cutOffServices.addAll(breakerOpen);
+        }
+        return songs;
+    }
+
+    private void submitIfHealthy(SearchService service) {
+        final String name = getName(service);
+        if (!sourceHealthRegistry.get(name).tryAcquire()) {
+            log.debug("Skipping search service {}, circuit breaker is open", name);
+            searchSourceMetrics.onSkipped(name, "breaker_open");
+            breakerOpen.add(name);
+            return;
+        }
+
+        startedAtMs.put(service, currentTimeMillis());
+        if (!submit(service)) {
+            // the bulkhead is full, it says nothing about the source health
+            sourceHealthRegistry.get(name).onCancelled();
+            rejected.add(name);
+            searchSourceMetrics.onSkipped(name, "rejected");
+            return;
+        }
+        sourceHealthRegistry.getHedgeDelayMs(name)
+                .ifPresent(delayMs -> hedgeAtMs.put(service, currentTimeMillis() + delayMs));
+    }
+
+    private boolean submit(SearchService service) {
+        final ExecutorCompletionService<SearchResultDto> completionService =
+                new ExecutorCompletionService<>(searchBulkheads.get(service).getExecutor(), completed);
+        try {
+            pending.put(completionService.submit(() -> fast ? service.searchFast(query) : service.search(query)),
+                    service);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void submitDueHedges(long now) {
+        hedgeAtMs.entrySet().removeIf(entry -> {
+            if (entry.getValue() > now) {
+                return false;
+            }
+            log.debug("Search service {} is slow, sending hedged search", getName(entry.getKey()));
+            searchSourceMetrics.onHedged(getName(entry.getKey()));
+            submit(entry.getKey());
+            return true;
+        });
+    }
+
+    private List<TrackMetadataDto> take(Future<SearchResultDto> future,
+            Consumer<List<TrackMetadataDto>> onServiceResult) {
+        final SearchService service = pending.remove(future);
+        if (service == null || answered.contains(service)) {
+            // cancelled call of the service which has already answered
+            return emptyList();
+        }
+
+        final String name = getName(service);
+        final SourceHealth health = sourceHealthRegistry.get(name);
+        final long latencyMs = currentTimeMillis() - startedAtMs.get(service);
+        try {
+            final List<TrackMetadataDto> serviceSongs = future.get().getSongs();
+            answered.add(service);
+            cancelOtherCalls(service);
+            health.onSuccess(latencyMs);
+            searchSourceMetrics.onAnswer(name, latencyMs, serviceSongs.size());
+            if (!serviceSongs.isEmpty()) {
+                onServiceResult.accept(newArrayList(serviceSongs));
+            }
+            return serviceSongs;
+        } catch (ExecutionException | InterruptedException e) {
+            if (pending.containsValue(service) || hedgeNow(service)) {
+                // the other call of the service can still answer
+                log.warn("Search service {} call failed, waiting for its other call", name, e.getCause());
+                return emptyList();
+            }
+            answered.add(service);
+            health.onFailure(latencyMs);
+            searchSourceMetrics.onFailure(name, latencyMs);
+            log.error("Can't take the search service {} result", name, e.getCause());
+            return emptyList();
+        }
+    }
+
+    /**
+     * The hedge which is not sent yet is sent right away instead of the failed call
+     */
+    private boolean hedgeNow(SearchService service) {
+        if (hedgeAtMs.remove(service) == null) {
+            return false;
+        }
+        searchSourceMetrics.onHedged(getName(service));
+        return submit(service);
+    }
+
+    private void cancelOtherCalls(SearchService service) {
+        hedgeAtMs.remove(service);
+        pending.entrySet().removeIf(entry -> {
+            if (entry.getValue() != service) {
+                return false;
+            }
+            entry.getKey().cancel(true);
+            return true;
+        });
+    }
+
+    private void cancelPending(long timeoutMs, boolean interrupted, Set<String> cutOffServices) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        final Set<SearchService> notAnswered = new HashSet<>(pending.values());
+        // interrupt stragglers to release search threads for the next queries
+        pending.keySet().forEach(future -> future.cancel(true));
+        pending.clear();
+
+        notAnswered.forEach(service -> {
+            final String name = getName(service);
+            final SourceHealth health = sourceHealthRegistry.get(name);
+            if (interrupted) {
+                health.onCancelled();
+            } else {
+                health.onFailure(timeoutMs);
+                searchSourceMetrics.onTimeout(name, timeoutMs);
+                cutOffServices.add(name);
+            }
+        });
+        if (!interrupted) {
+            log.warn("Search services {} have not answered in {}ms for {}, cancelling", cutOffServices, timeoutMs,
+                    query);
+        }
+    }
+}
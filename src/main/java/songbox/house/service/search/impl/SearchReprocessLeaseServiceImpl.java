@@ -0,0 +1,74 @@
+package songbox.house.service.search.impl;
+
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import songbox.house.repository.SearchReprocessLeaseRepository;
+import songbox.house.service.search.SearchReprocessLeaseService;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Date;
+
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static lombok.AccessLevel.PRIVATE;
+import static org.springframework.transaction.annotation.Propagation.REQUIRES_NEW;
+
+/**
+ * Leases are committed in their own transactions, so the other nodes see them before the user is reprocessed
+ */
+@Service
+@Slf4j
+@FieldDefaults(makeFinal = true, level = PRIVATE)
+public class SearchReprocessLeaseServiceImpl implements SearchReprocessLeaseService {
+
+    SearchReprocessLeaseRepository repository;
+    Clock clock;
+    Long leaseTtlMinutes;
+    // pid@host
+    String owner = ManagementFactory.getRuntimeMXBean().getName();
+
+    public SearchReprocessLeaseServiceImpl(SearchReprocessLeaseRepository repository, Clock clock,
+            @Value("${songbox.house.reprocess.lease.ttl.minutes:60}") Long leaseTtlMinutes) {
+        this.repository = repository;
+        this.clock = clock;
+        this.leaseTtlMinutes = leaseTtlMinutes;
+    }
+
+    @Override
+    @Transactional(propagation = REQUIRES_NEW)
+    public boolean tryAcquire(Long userId, String runId) {
+        final Instant now = clock.instant();
+        final boolean acquired = repository.tryAcquire(userId, runId, owner,
+                Date.from(now.plus(leaseTtlMinutes, MINUTES)), Date.from(now)) > 0;
+        if (!acquired) {
+            log.debug("User {} is reprocessed by another node in run {}", userId, runId);
+        }
+        return acquired;
+    }
+
+    @Override
+    @Transactional(propagation = REQUIRES_NEW)
+    public boolean extend(Long userId, String runId) {
+        final boolean extended = repository.extend(userId, runId, owner,
+                Date.from(clock.instant().plus(leaseTtlMinutes, MINUTES))) > 0;
+        if (!extended) {
+            log.warn("Lease of user {} in run {} is lost", userId, runId);
+        }
+        return extended;
+    }
+
+    @Override
+    @Transactional(propagation = REQUIRES_NEW)
+    public void complete(Long userId, String runId) {
+        repository.setDone(userId, runId, owner);
+    }
+
+    @Override
+    public boolean isLeased(Long userId) {
+        return repository.existsByUserIdAndDoneFalseAndLeasedUntilAfter(userId, Date.from(clock.instant()));
+    }
+}
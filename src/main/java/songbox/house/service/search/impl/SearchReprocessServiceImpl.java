@@ -1,16 +1,25 @@
 package songbox.house.service.search.impl;
 
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronSequenceGenerator;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+import songbox.house.domain.dto.FailedQueryDto;
 import songbox.house.domain.dto.SearchReprocessResultDto;
 import songbox.house.domain.dto.request.SearchQueryDto;
 import songbox.house.domain.dto.response.TrackMetadataDto;
@@ -19,46 +28,144 @@ import songbox.house.domain.entity.user.UserInfo;
 import songbox.house.event.SearchReprocessFoundEvent;
 import songbox.house.repository.SearchReprocessRepository;
 import songbox.house.repository.SearchReprocessResultRepository;
+import songbox.house.service.KafkaService;
 import songbox.house.service.UserService;
+import songbox.house.service.search.SearchReprocessLeaseService;
 import songbox.house.service.search.SearchReprocessService;
 import songbox.house.service.search.SearchServiceFacade;
-import songbox.house.service.search.TrackDownloadService;
 import songbox.house.util.ArtistsTitle;
+import songbox.house.util.ExecutorUtil;
 import songbox.house.util.Pair;
 import songbox.house.util.compare.TrackMetadataComparator;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Stream;
 
+import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.Math.min;
 import static java.lang.String.join;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.shuffle;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 import static java.util.stream.StreamSupport.stream;
 import static lombok.AccessLevel.PRIVATE;
+import static org.springframework.transaction.support.TransactionSynchronizationManager.isSynchronizationActive;
+import static org.springframework.transaction.support.TransactionSynchronizationManager.registerSynchronization;
 import static songbox.house.domain.entity.SearchReprocessStatus.DOWNLOADED;
 import static songbox.house.domain.entity.SearchReprocessStatus.FOUND;
 import static songbox.house.domain.entity.SearchReprocessStatus.NOT_FOUND;
+import static songbox.house.service.KafkaConsumer.getRetryDelay;
+import static songbox.house.util.compare.RankingUtil.topK;
 
 @Service
 @Slf4j
 @FieldDefaults(makeFinal = true, level = PRIVATE)
-@AllArgsConstructor
 public class SearchReprocessServiceImpl implements SearchReprocessService {
+    private static final int MAX_BACKOFF_SHIFT = 20;
 
     SearchReprocessRepository repository;
     SearchReprocessResultRepository reprocessResultRepository;
     SearchServiceFacade searchServiceFacade;
-    TrackDownloadService downloadService;
+    ReprocessResultDownloader reprocessResultDownloader;
     UserService userService;
     ApplicationEventPublisher applicationEventPublisher;
+    SearchReprocessLeaseService leaseService;
+    KafkaService kafkaService;
+    TransactionTemplate transactionTemplate;
+    Clock clock;
+    CronSequenceGenerator reprocessSchedule;
+    Long runStartToleranceMinutes;
+    // shared by all the users, bounds the total number of reprocess searches
+    ExecutorService reprocessExecutorService;
+    // users reprocessed at once by this node, every one runs up to userParallelism searches on the shared executor
+    ExecutorService reprocessUsersExecutorService;
+    ConcurrentMap<Long, Semaphore> userPermits = new ConcurrentHashMap<>();
+    // result repository versions by user, which are consistent with the search reprocess statuses
+    ConcurrentMap<Long, String> syncedVersions = new ConcurrentHashMap<>();
+    Integer userParallelism;
+    Integer batchSize;
+    Duration backoffBase;
+    Duration backoffMax;
+
+    public SearchReprocessServiceImpl(SearchReprocessRepository repository,
+            SearchReprocessResultRepository reprocessResultRepository,
+            SearchServiceFacade searchServiceFacade,
+            ReprocessResultDownloader reprocessResultDownloader,
+            UserService userService,
+            ApplicationEventPublisher applicationEventPublisher,
+            SearchReprocessLeaseService leaseService,
+            KafkaService kafkaService,
+            PlatformTransactionManager transactionManager,
+            Clock clock,
+            MeterRegistry meterRegistry,
+            @Value("${songbox.house.reprocess.cron:0 0 0 * * *}") String reprocessCron,
+            @Value("${songbox.house.reprocess.run.start.tolerance.minutes:10}") Long runStartToleranceMinutes,
+            @Value("${songbox.house.reprocess.threads:4}") Integer reprocessThreads,
+            @Value("${songbox.house.reprocess.user.parallelism:2}") Integer userParallelism,
+            @Value("${songbox.house.reprocess.users.parallel:0}") Integer parallelUsers,
+            @Value("${songbox.house.reprocess.batch.size:20}") Integer batchSize,
+            // a bit shorter than the schedule period, so the first retry is in the next run
+            @Value("${songbox.house.reprocess.backoff.base.hours:20}") Long backoffBaseHours,
+            @Value("${songbox.house.reprocess.backoff.max.days:30}") Long backoffMaxDays) {
+        this.repository = repository;
+        this.reprocessResultRepository = reprocessResultRepository;
+        this.searchServiceFacade = searchServiceFacade;
+        this.reprocessResultDownloader = reprocessResultDownloader;
+        this.userService = userService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.leaseService = leaseService;
+        this.kafkaService = kafkaService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.reprocessSchedule = new CronSequenceGenerator(reprocessCron);
+        this.runStartToleranceMinutes = runStartToleranceMinutes;
+        this.reprocessExecutorService = ExecutorServiceMetrics.monitor(meterRegistry,
+                ExecutorUtil.createExecutorService(reprocessThreads), "reprocess");
+        // by default just enough users to keep all the reprocess threads busy
+        final int users = parallelUsers > 0 ? parallelUsers : Math.max(1, reprocessThreads / userParallelism);
+        this.reprocessUsersExecutorService = ExecutorServiceMetrics.monitor(meterRegistry,
+                ExecutorUtil.createExecutorService(users), "reprocess.users");
+        this.userParallelism = userParallelism;
+        this.batchSize = batchSize;
+        this.backoffBase = Duration.ofHours(backoffBaseHours);
+        this.backoffMax = Duration.ofDays(backoffMaxDays);
+    }
+
+    /**
+     * The searches created before the next attempt was set by the app are never due otherwise. Once they are filled
+     * the update finds nothing, so it is effectively run once.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void setMissingNextAttempts() {
+        final Integer updated = transactionTemplate.execute(status ->
+                repository.setMissingNextAttempts(Date.from(clock.instant())));
+        if (updated != null && updated > 0) {
+            log.info("Set the next attempt of {} search reprocesses", updated);
+        }
+    }
 
     @Override
     @Transactional
@@ -66,7 +173,8 @@ public class SearchReprocessServiceImpl implements SearchReprocessService {
         return repository.findByUserIdAndSearchQuery(userId, searchQuery)
                 .map(searchReprocess -> {
                     if (DOWNLOADED == searchReprocess.getStatus()) {
-                        repository.setNotFoundById(searchReprocess.getId());
+                        repository.setNotFoundById(searchReprocess.getId(), Date.from(clock.instant()));
+                        sendToFailedQueries(searchReprocess);
                     }
                     return searchReprocess;
                 })
@@ -95,106 +203,304 @@ public class SearchReprocessServiceImpl implements SearchReprocessService {
         return repository.findByUserIdAndStatus(userId, DOWNLOADED, pageable);
     }
 
+    /**
+     * Not transactional, the downloaded searches are committed by the batches
+     */
     @Override
-    @Transactional
     public void download(Long userId, Set<Long> searchReprocessIds) {
         log.info("Starting downloading search reprocess ids {} for user {}", searchReprocessIds, userId);
         Map<Long, SearchReprocessResultDto> readyForDownloading =
                 reprocessResultRepository.get(userId, searchReprocessIds);
 
-        int downloaded = download(userId, readyForDownloading);
+        int downloaded = reprocessResultDownloader.download(userId, readyForDownloading);
         log.info("Downloaded {} tracks for user {}", downloaded, userId);
     }
 
     @Override
-    @Transactional
     public void downloadAll(Long userId) {
         log.info("Starting downloading all search reprocess ids for user {}", userId);
         Map<Long, SearchReprocessResultDto> readyForDownloading = reprocessResultRepository.available(userId);
 
-        int downloaded = download(userId, readyForDownloading);
+        int downloaded = reprocessResultDownloader.download(userId, readyForDownloading);
         log.info("Downloaded {} tracks for user {}", downloaded, userId);
     }
 
+    /**
+     * Every node goes through all the users, but reprocesses only the users it has leased for this run, so the users
+     * are split between the running nodes. Several users are reprocessed at once, the user is leased only when it's
+     * taken by the users executor, so the lease doesn't expire while the user is waiting.
+     */
     @Override
-    @Transactional
     @Scheduled(cron = "${songbox.house.reprocess.cron:0 0 0 * * *}")
     public void reprocessAllUsers() {
-        log.info("Starting reprocessing search requests for all users");
-        stream(repository.findAllUsersForReprocess(NOT_FOUND).spliterator(), false)
-                .filter(userId -> userService.findById(userId).getUserProperty().isSearchReprocessEnabled())
-                .forEach(this::reprocess);
-        log.info("Finished reprocessing search requests for all users");
+        final String runId = getRunId();
+        log.info("Starting reprocessing search requests for all users, run {}", runId);
+        final List<Long> userIds = newArrayList(repository.findAllUsersForReprocess(NOT_FOUND,
+                Date.from(clock.instant())));
+        // nodes don't compete for the same leases one by one
+        shuffle(userIds);
+
+        final List<CompletableFuture<Boolean>> users = userIds.stream()
+                .map(userId -> supplyAsync(() -> reprocessIfLeased(userId, runId), reprocessUsersExecutorService)
+                        .exceptionally(e -> {
+                            log.error("Can't reprocess search requests for user {}", userId, e);
+                            return false;
+                        }))
+                .collect(toList());
+        final long reprocessed = users.stream()
+                .map(CompletableFuture::join)
+                .filter(Boolean::booleanValue)
+                .count();
+        log.info("Finished reprocessing search requests for all users, run {}, {} of {} users reprocessed by this node",
+                runId, reprocessed, userIds.size());
     }
 
+    /**
+     * Not transactional, every batch is committed in own transaction
+     */
     @Override
-    @Transactional
     public void reprocess(Long userId) {
-        log.info("Starting reprocessing search requests for user {}", userId);
-        checkConsistency(userId);
+        reprocess(userId, () -> true);
+    }
 
-        Map<Long, SearchReprocessResultDto> reprocessResult = new HashMap<>();
+    /**
+     * No transaction is open while the batch is searched. The batch is committed only if the user can be kept after
+     * the search, otherwise the reprocessing stops and the batch is left to the node which has taken the user.
+     *
+     * @param keepLease called before every batch commit
+     */
+    private void reprocess(Long userId, BooleanSupplier keepLease) {
+        log.info("Starting reprocessing search requests for user {}", userId);
+        transactionTemplate.execute(status -> {
+            checkConsistency(userId);
+            return null;
+        });
 
-        int pageNumber = 0;
-        Page<SearchReprocess> batch;
+        // every attempted search gets the next attempt in the future and drops out of the due ones, the next batch
+        // is still read after the last one, so the searches which are not rescheduled aren't read again
+        final Instant startedAt = clock.instant();
+        final Pageable pageable = PageRequest.of(0, batchSize);
+        Date afterAt = new Date(0);
+        Long afterId = 0L;
+        int found = 0;
+        List<SearchReprocess> batch;
         do {
-            //TODO config
-            Pageable pageable = PageRequest.of(pageNumber, 20);
-            batch = repository.findByUserIdAndStatus(userId, NOT_FOUND, pageable);
-            reprocessResult.putAll(reprocessBatch(batch.getContent()));
-            repository.incrementRetryCount(batch.stream().map(SearchReprocess::getId).collect(toSet()));
-            pageNumber++;
-        } while (batch.hasNext());
+            batch = repository.findDue(userId, NOT_FOUND, Date.from(startedAt), afterAt, afterId, pageable);
+            if (batch.isEmpty()) {
+                break;
+            }
+            final SearchReprocess last = batch.get(batch.size() - 1);
+            afterAt = last.getNextAttemptAt();
+            afterId = last.getId();
 
-        if (!reprocessResult.isEmpty()) {
-            reprocessResultRepository.save(userId, reprocessResult);
-            repository.setFound(new Date(), new ArrayList<>(reprocessResult.keySet()));
-            applicationEventPublisher.publishEvent(new SearchReprocessFoundEvent(this, userId, reprocessResult));
-            final UserInfo user = userService.findById(userId);
-            if (user.getUserProperty().isAutoDownloadSearchReprocessEnabled()) {
-                downloadAll(userId);
+            final Map<Long, SearchReprocessResultDto> batchResult = new ConcurrentHashMap<>();
+            reprocessBatch(userId, batch, batchResult);
+            if (!keepLease.getAsBoolean()) {
+                log.warn("Stopping reprocessing search requests for user {}, the user is not leased anymore", userId);
+                break;
             }
+            final List<SearchReprocess> attempted = batch;
+            transactionTemplate.execute(status -> {
+                scheduleNextAttempts(attempted, startedAt);
+                saveFound(userId, batchResult);
+                return null;
+            });
+            found += batchResult.size();
+        } while (batch.size() == batchSize);
+
+        if (found > 0) {
+            downloadIfEnabled(userId);
         }
-        log.info("Finished reprocessing search requests for user {}, found {}", userId, reprocessResult.size());
+        log.info("Finished reprocessing search requests for user {}, found {}", userId, found);
     }
 
-    private Optional<Long> downloadOne(Long searchReprocessId, SearchReprocessResultDto resultDto) {
-        return downloadService.download(resultDto.getTrackMetadata(), resultDto.getCollectionId(),
-                resultDto.getOwnerId(), resultDto.getGenres())
-                .map(t -> searchReprocessId);
-    }
+    /**
+     * The failed queries have their own retries, so their attempts don't move the next scheduled attempt. The user
+     * leased by the scheduled run is skipped, the queries are retried after it.
+     */
+    @Override
+    @Transactional
+    public Set<Long> reprocess(Long userId, Set<Long> searchReprocessIds) {
+        if (!userService.findById(userId).getUserProperty().isSearchReprocessEnabled()) {
+            log.debug("Search reprocessing is disabled for user {}, skipping failed queries", userId);
+            return emptySet();
+        }
+        if (leaseService.isLeased(userId)) {
+            log.debug("User {} is reprocessed by the scheduled run, failed queries are retried later", userId);
+            return searchReprocessIds;
+        }
 
-    private int download(Long userId, Map<Long, SearchReprocessResultDto> readyForDownloading) {
-        final Set<Long> downloadedReprocessIds = readyForDownloading.entrySet().stream()
-                .map(entry -> downloadOne(entry.getKey(), entry.getValue()))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
+        // already found, downloaded or removed searches are skipped
+        final List<SearchReprocess> notFound = stream(repository.findAllById(searchReprocessIds).spliterator(), false)
+                .filter(searchReprocess -> userId.equals(searchReprocess.getUserId())
+                        && NOT_FOUND == searchReprocess.getStatus())
+                .collect(toList());
+        if (notFound.isEmpty()) {
+            return emptySet();
+        }
+
+        final Map<Long, SearchReprocessResultDto> reprocessResult = new ConcurrentHashMap<>();
+        reprocessBatch(userId, notFound, reprocessResult);
+        onFound(userId, reprocessResult);
+
+        return notFound.stream()
+                .map(SearchReprocess::getId)
+                .filter(id -> !reprocessResult.containsKey(id))
                 .collect(toSet());
+    }
+
+    private void onFound(Long userId, Map<Long, SearchReprocessResultDto> reprocessResult) {
+        if (!reprocessResult.isEmpty()) {
+            saveFound(userId, reprocessResult);
+            downloadIfEnabled(userId);
+        }
+    }
+
+    private void saveFound(Long userId, Map<Long, SearchReprocessResultDto> reprocessResult) {
+        if (reprocessResult.isEmpty()) {
+            return;
+        }
+        reprocessResultRepository.save(userId, reprocessResult);
+        repository.setFound(new Date(), new ArrayList<>(reprocessResult.keySet()));
+        applicationEventPublisher.publishEvent(new SearchReprocessFoundEvent(this, userId, reprocessResult));
+    }
 
-        if (!downloadedReprocessIds.isEmpty()) {
-            repository.setDownloaded(new Date(), downloadedReprocessIds);
-            reprocessResultRepository.remove(userId, downloadedReprocessIds);
+    private void downloadIfEnabled(Long userId) {
+        final UserInfo user = userService.findById(userId);
+        if (user.getUserProperty().isAutoDownloadSearchReprocessEnabled()) {
+            // the downloads commit in own transactions, the found searches must be committed before
+            afterCommit(() -> downloadAll(userId));
         }
+    }
 
-        return downloadedReprocessIds.size();
+    /**
+     * The search has just failed, so the first retry is after the first retry delay. It's sent after the commit, so
+     * the consumer sees the search reprocess.
+     */
+    private void sendToFailedQueries(SearchReprocess searchReprocess) {
+        final FailedQueryDto failedQuery = new FailedQueryDto();
+        failedQuery.setUserId(searchReprocess.getUserId());
+        failedQuery.setSearchReprocessId(searchReprocess.getId());
+        failedQuery.setQuery(searchReprocess.getSearchQuery());
+        failedQuery.setRetry(1);
+        failedQuery.setNotBefore(clock.millis() + getRetryDelay(1).toMillis());
+
+        afterCommit(() -> kafkaService.sendToFailedQueries(failedQuery));
     }
 
-    private void checkConsistency(Long userId) {
-        Set<Long> availableReprocessIds = reprocessResultRepository.available(userId).keySet();
-        if (!availableReprocessIds.isEmpty()) {
-            repository.setNotFound(availableReprocessIds);
+    private void afterCommit(Runnable action) {
+        if (isSynchronizationActive()) {
+            registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
         } else {
-            repository.setNotFound(userId);
+            action.run();
+        }
+    }
+
+    private boolean reprocessIfLeased(Long userId, String runId) {
+        if (userService.findById(userId).getUserProperty().isSearchReprocessEnabled()
+                && leaseService.tryAcquire(userId, runId)) {
+            reprocessLeased(userId, runId);
+            return true;
+        }
+        return false;
+    }
+
+    private void reprocessLeased(Long userId, String runId) {
+        try {
+            reprocess(userId, () -> leaseService.extend(userId, runId));
+            leaseService.complete(userId, runId);
+        } catch (RuntimeException e) {
+            // not completed lease expires and the user is taken again
+            log.error("Can't reprocess search requests for user {}", userId, e);
+        }
+    }
+
+    /**
+     * All the nodes get the same scheduled fire time, even if they start a bit late. The run started not by the
+     * schedule gets its own id.
+     */
+    private String getRunId() {
+        final Instant now = clock.instant();
+        final Date scheduledAt = reprocessSchedule.next(Date.from(now.minus(runStartToleranceMinutes, MINUTES)));
+        return scheduledAt.toInstant().isAfter(now)
+                ? "manual-" + now.toEpochMilli()
+                : "scheduled-" + scheduledAt.getTime();
+    }
+
+    private void scheduleNextAttempts(List<SearchReprocess> batch, Instant attemptedAt) {
+        batch.stream()
+                .collect(groupingBy(s -> s.getRetries() == null ? 0 : s.getRetries(),
+                        mapping(SearchReprocess::getId, toSet())))
+                .forEach((retries, ids) ->
+                        repository.incrementRetryCount(Date.from(attemptedAt.plus(getBackoff(retries))), ids));
+    }
+
+    /**
+     * base * 2^retries, but not more than max
+     */
+    private Duration getBackoff(int retries) {
+        final Duration backoff = backoffBase.multipliedBy(1L << min(retries, MAX_BACKOFF_SHIFT));
+        return backoff.compareTo(backoffMax) > 0 ? backoffMax : backoff;
+    }
+
+    /**
+     * Found searches, which results are lost, are not found again. The results are compared only if they have been
+     * lost since the last check, the missing version is never synced.
+     */
+    private void checkConsistency(Long userId) {
+        final String version = reprocessResultRepository.getVersion(userId);
+        if (version != null && version.equals(syncedVersions.get(userId))) {
+            return;
+        }
+
+        final Set<Long> lostIds = new HashSet<>(repository.findFoundIds(userId));
+        lostIds.removeAll(reprocessResultRepository.availableIds(userId));
+        if (!lostIds.isEmpty()) {
+            log.info("Results of {} found searches of user {} are lost, setting them not found", lostIds.size(),
+                    userId);
+            repository.setNotFound(lostIds, Date.from(clock.instant()));
         }
+        afterCommit(() -> {
+            if (version == null) {
+                syncedVersions.remove(userId);
+            } else {
+                syncedVersions.put(userId, version);
+            }
+        });
     }
 
-    private Map<Long, SearchReprocessResultDto> reprocessBatch(Collection<SearchReprocess> batch) {
-        //TODO parallel if need
-        return batch.stream()
-                .map(this::reprocessOneSearch)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(toMap(Pair::getLeft, Pair::getRight));
+    /**
+     * Searches run on the shared reprocess executor, but not more than {@code userParallelism} of one user at once,
+     * so one user with a long list can't take all the threads
+     */
+    private void reprocessBatch(Long userId, Collection<SearchReprocess> batch,
+            Map<Long, SearchReprocessResultDto> reprocessResult) {
+        final Semaphore permits = userPermits.computeIfAbsent(userId, id -> new Semaphore(userParallelism, true));
+        final List<CompletableFuture<Void>> searches = new ArrayList<>();
+        try {
+            for (SearchReprocess searchReprocess : batch) {
+                permits.acquire();
+                searches.add(runAsync(() -> reprocessOneSearch(searchReprocess)
+                        .ifPresent(result -> reprocessResult.put(result.getLeft(), result.getRight())),
+                        reprocessExecutorService)
+                        .handle((ignored, e) -> {
+                            permits.release();
+                            if (e != null) {
+                                log.warn("Can't reprocess search {}", searchReprocess.getSearchQuery(), e);
+                            }
+                            return null;
+                        }));
+            }
+        } catch (InterruptedException e) {
+            log.warn("Reprocessing for user {} was interrupted", userId);
+            Thread.currentThread().interrupt();
+        }
+        allOf(searches.toArray(new CompletableFuture[0])).join();
     }
 
     private Optional<Pair<Long, SearchReprocessResultDto>> reprocessOneSearch(SearchReprocess searchReprocess) {
@@ -203,14 +509,15 @@ public class SearchReprocessServiceImpl implements SearchReprocessService {
         //TODO config
         TrackMetadataComparator comparator = new TrackMetadataComparator(ArtistsTitle.parse(searchQuery), 85);
 
-        List<TrackMetadataDto> searchResult = searchServiceFacade.search(searchQueryDto).stream()
-                .sorted(comparator.reversed())
-                .collect(toList());
+        // facade result is ranked by the looser comparator, only the best one by the strict comparator is needed. The
+        // query is not found before, so the cached not found result is skipped.
+        List<TrackMetadataDto> searchResult = topK(searchServiceFacade.searchAgain(searchQueryDto),
+                comparator.reversed(), 1);
 
         if (searchResult.isEmpty()) {
             return Optional.empty();
         } else {
-            log.debug("Reprocess search result sorted {}, saving 1st element as result", searchResult);
+            log.debug("Reprocess search best result {}, saving it as result", searchResult);
             final TrackMetadataDto foundTrackMetadata = searchResult.get(0);
             SearchReprocessResultDto resultDto = new SearchReprocessResultDto();
             resultDto.setTrackMetadata(foundTrackMetadata);
@@ -234,7 +541,11 @@ public class SearchReprocessServiceImpl implements SearchReprocessService {
         searchReprocess.setCollectionId(collectionId);
         searchReprocess.setUserId(userId);
         searchReprocess.setGenres(join(",", genres));
-        return repository.save(searchReprocess);
+        // due right away
+        searchReprocess.setNextAttemptAt(Date.from(clock.instant()));
+        final SearchReprocess saved = repository.save(searchReprocess);
+        sendToFailedQueries(saved);
+        return saved;
     }
 
 }
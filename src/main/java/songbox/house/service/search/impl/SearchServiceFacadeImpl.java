@@ -7,82 +7,115 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import songbox.house.domain.dto.request.SearchQueryDto;
-import songbox.house.domain.dto.response.SearchResultDto;
 import songbox.house.domain.dto.response.TrackMetadataDto;
 import songbox.house.domain.entity.user.UserInfo;
-import songbox.house.service.DiscogsWebsiteService;
+import songbox.house.service.ArtworkService;
 import songbox.house.service.UserService;
 import songbox.house.service.search.SearchReprocessService;
+import songbox.house.service.search.SearchResultListener;
 import songbox.house.service.search.SearchService;
 import songbox.house.service.search.SearchServiceFacade;
+import songbox.house.service.search.cache.SearchQueryKey;
+import songbox.house.service.search.cache.SearchResultCache;
+import songbox.house.service.search.source.SearchBulkheads;
+import songbox.house.service.search.source.SearchSourceMetrics;
+import songbox.house.service.search.source.SourceHealthRegistry;
 import songbox.house.util.ArtistsTitle;
-import songbox.house.util.ExecutorUtil;
+import songbox.house.util.SingleFlight;
 import songbox.house.util.compare.TrackMetadataComparator;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionService;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Lists.reverse;
 import static java.lang.System.currentTimeMillis;
 import static java.util.Collections.emptySet;
-import static java.util.Optional.ofNullable;
-import static java.util.concurrent.CompletableFuture.supplyAsync;
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static lombok.AccessLevel.PRIVATE;
+import static songbox.house.service.search.cache.SearchResultCache.copyOf;
+import static songbox.house.util.compare.RankingUtil.topK;
 
 @Service
 @FieldDefaults(makeFinal = true, level = PRIVATE)
 @Slf4j
 public class SearchServiceFacadeImpl implements SearchServiceFacade {
 
+    private static final SearchResultListener NO_OP_LISTENER = new SearchResultListener() {
+    };
+
     List<SearchService> searchServices;
-    DiscogsWebsiteService discogsWebsiteService;
+    ArtworkService artworkService;
     SearchReprocessService searchReprocessService;
     UserService userService;
-    ExecutorService searchExecutorService;
+    SearchResultCache searchResultCache;
+    SourceHealthRegistry sourceHealthRegistry;
+    SingleFlight<SearchQueryKey, List<TrackMetadataDto>> inFlightSearches = new SingleFlight<>();
+    SearchBulkheads searchBulkheads;
+    SearchSourceMetrics searchSourceMetrics;
     Integer searchServiceTimeoutMs;
+    Integer resultMaxSize;
 
     @Autowired
-    public SearchServiceFacadeImpl(List<SearchService> searchServices, DiscogsWebsiteService discogsWebsiteService,
+    public SearchServiceFacadeImpl(List<SearchService> searchServices, ArtworkService artworkService,
             //TODO remove circular dependency
             @Lazy SearchReprocessService searchReprocessService,
             UserService userService,
-            @Value("${songbox.house.search.threads:2}") Integer searchThreads,
-            @Value("${songbox.house.search.service.timeout.ms:10000}") Integer searchServiceTimeoutMs) {
+            SearchResultCache searchResultCache,
+            SourceHealthRegistry sourceHealthRegistry,
+            SearchBulkheads searchBulkheads,
+            SearchSourceMetrics searchSourceMetrics,
+            @Value("${songbox.house.search.service.timeout.ms:10000}") Integer searchServiceTimeoutMs,
+            @Value("${songbox.house.search.result.max.size:100}") Integer resultMaxSize) {
         this.searchServices = searchServices;
-        this.discogsWebsiteService = discogsWebsiteService;
+        this.artworkService = artworkService;
         this.searchReprocessService = searchReprocessService;
         this.userService = userService;
-        this.searchExecutorService = ExecutorUtil.createExecutorService(searchThreads);
+        this.searchResultCache = searchResultCache;
+        this.sourceHealthRegistry = sourceHealthRegistry;
+        this.searchBulkheads = searchBulkheads;
+        this.searchSourceMetrics = searchSourceMetrics;
         this.searchServiceTimeoutMs = searchServiceTimeoutMs;
+        this.resultMaxSize = resultMaxSize;
     }
 
     @Override
     public List<TrackMetadataDto> search(SearchQueryDto query) {
-        return doSearch(query, false);
+        return doSearch(query, false, NO_OP_LISTENER);
     }
 
-    private List<TrackMetadataDto> doSearch(SearchQueryDto query, boolean fast) {
-        log.info("Starting search for {}", query);
-        long searchStart = currentTimeMillis();
+    @Override
+    public List<TrackMetadataDto> searchAgain(SearchQueryDto query) {
+        final SearchQueryKey cacheKey = SearchQueryKey.of(query, false, false);
+        return searchResultCache.getFound(cacheKey)
+                .orElseGet(() -> searchOnce(query, cacheKey, NO_OP_LISTENER));
+    }
 
-        CompletableFuture<Optional<String>> artworkFuture = null;
-        if (query.isFetchArtwork()) {
-            artworkFuture = supplyAsync(() -> discogsWebsiteService.searchArtwork(query.getQuery()));
-        }
-        final List<TrackMetadataDto> songs = searchSongs(query, fast);
+    @Override
+    public void search(SearchQueryDto query, boolean isFast, SearchResultListener listener) {
+        listener.onComplete(doSearch(query, isFast, listener));
+    }
 
-        ofNullable(artworkFuture)
-                .flatMap(CompletableFuture::join)
-                .ifPresent(artwork -> songs.forEach(song -> song.setThumbnail(artwork)));
+    private List<TrackMetadataDto> doSearch(SearchQueryDto query, boolean fast, SearchResultListener listener) {
+        log.info("Starting search for {}", query);
+        long searchStart = currentTimeMillis();
 
-        ArtistsTitle artistTitle = ArtistsTitle.parse(query.getQuery());
-        sort(songs, artistTitle);
+        final boolean fullSearchFallback = fast
+                && userService.getCurrentUser().getUserProperty().isUseFullSearchIfFastFailsEnabled();
+        final SearchQueryKey cacheKey = SearchQueryKey.of(query, fast, fullSearchFallback);
+        final List<TrackMetadataDto> songs = searchResultCache.get(cacheKey)
+                .map(cached -> {
+                    log.debug("Search result for {} found in cache", query);
+                    if (!cached.isEmpty()) {
+                        listener.onResult(cached);
+                    }
+                    return cached;
+                })
+                .orElseGet(() -> searchOnce(query, cacheKey, listener));
 
         log.info("Search finished {}ms, found {} items", currentTimeMillis() - searchStart, songs.size());
         if (songs.isEmpty()) {
@@ -92,46 +125,106 @@ public class SearchServiceFacadeImpl implements SearchServiceFacade {
                 searchReprocessService.createIfNotExists(query.getQuery(), null, emptySet(), currentUser.getUserId());
             }
         }
-        //TODO change comparator to no need reverse
-        return reverse(songs);
+        return songs;
+    }
+
+    /**
+     * Concurrent searches with the same normalized query share one search, the callers which joined it get the
+     * whole result at once
+     */
+    private List<TrackMetadataDto> searchOnce(SearchQueryDto query, SearchQueryKey cacheKey,
+            SearchResultListener listener) {
+        final AtomicBoolean executed = new AtomicBoolean();
+        final List<TrackMetadataDto> songs = inFlightSearches.execute(cacheKey, () -> {
+            executed.set(true);
+            return searchAndCache(query, cacheKey, listener);
+        });
+        if (executed.get()) {
+            return songs;
+        }
+        log.debug("Joined in-flight search for {}", query);
+        // result is shared between callers, they sort and modify the list and the songs
+        final List<TrackMetadataDto> copy = copyOf(songs);
+        if (!copy.isEmpty()) {
+            listener.onResult(newArrayList(copy));
+        }
+        return copy;
     }
 
-    private List<TrackMetadataDto> searchSongs(SearchQueryDto query, boolean fast) {
-        List<TrackMetadataDto> songs = getSearchResult(query, fast);
+    private List<TrackMetadataDto> searchAndCache(SearchQueryDto query, SearchQueryKey cacheKey,
+            SearchResultListener listener) {
+        final CompletableFuture<Optional<String>> artworkFuture = query.isFetchArtwork()
+                ? artworkService.searchAsync(query.getQuery())
+                : completedFuture(Optional.empty());
+        ArtistsTitle artistTitle = ArtistsTitle.parse(query.getQuery());
+        final Consumer<List<TrackMetadataDto>> onServiceResult = serviceSongs -> {
+            applyArtworkIfReady(artworkFuture, serviceSongs);
+            listener.onResult(rank(serviceSongs, artistTitle));
+        };
+
+        final Set<String> cutOffServices = new HashSet<>();
+        final List<TrackMetadataDto> songs = searchSongs(query, cacheKey, onServiceResult, cutOffServices);
+
+        List<TrackMetadataDto> ranked = rank(songs, artistTitle);
+        final boolean artworkApplied = applyArtworkIfReady(artworkFuture, ranked);
+
+        if (cutOffServices.isEmpty()) {
+            searchResultCache.put(cacheKey, ranked);
+            if (!artworkApplied) {
+                // don't wait for the artwork, the returned songs are published already, so only the cached copy
+                // gets it when it's found
+                artworkFuture.thenAccept(artwork -> artwork.ifPresent(url ->
+                        searchResultCache.update(cacheKey, cached -> setThumbnail(cached, url))));
+            }
+        } else {
+            // don't cache partial result
+            listener.onCutOff(cutOffServices);
+        }
+        return ranked;
+    }
 
-        if (fast && songs.isEmpty() && userService.getCurrentUser().getUserProperty().isUseFullSearchIfFastFailsEnabled()) {
-            log.info("Using full search, because fast search has not results");
-            songs = getSearchResult(query, false);
+    private boolean applyArtworkIfReady(CompletableFuture<Optional<String>> artworkFuture,
+            List<TrackMetadataDto> songs) {
+        if (!artworkFuture.isDone()) {
+            return false;
         }
+        artworkFuture.join().ifPresent(url -> setThumbnail(songs, url));
+        return true;
+    }
 
+    private List<TrackMetadataDto> setThumbnail(List<TrackMetadataDto> songs, String url) {
+        songs.forEach(song -> song.setThumbnail(url));
         return songs;
     }
 
-    private List<TrackMetadataDto> getSearchResult(SearchQueryDto query, boolean fast) {
-        CompletionService<SearchResultDto> completionService = new ExecutorCompletionService<>(searchExecutorService);
-        searchServices.forEach(service -> completionService.submit(() -> ((fast)
-                ? service.searchFast(query)
-                : service.search(query))));
-        List<TrackMetadataDto> songs = newArrayList();
-        for (int i = 0; i < searchServices.size(); i++) {
-            try {
-                songs.addAll(completionService.take().get(searchServiceTimeoutMs, MILLISECONDS).getSongs());
-            } catch (Exception e) {
-                log.error("Can't take the search service result", e);
-            }
+    private List<TrackMetadataDto> searchSongs(SearchQueryDto query, SearchQueryKey cacheKey,
+            Consumer<List<TrackMetadataDto>> onServiceResult, Set<String> cutOffServices) {
+        List<TrackMetadataDto> songs = getSearchResult(query, cacheKey.isFast(), onServiceResult, cutOffServices);
+
+        if (songs.isEmpty() && cacheKey.isFullSearchFallback()) {
+            log.info("Using full search, because fast search has not results");
+            songs = getSearchResult(query, false, onServiceResult, cutOffServices);
         }
+
         return songs;
     }
 
+    private List<TrackMetadataDto> getSearchResult(SearchQueryDto query, boolean fast,
+            Consumer<List<TrackMetadataDto>> onServiceResult, Set<String> cutOffServices) {
+        return new ScatterGatherSearch(query, fast, searchServices, searchBulkheads, sourceHealthRegistry,
+                searchSourceMetrics)
+                .execute(searchServiceTimeoutMs, onServiceResult, cutOffServices);
+    }
+
     @Override
     public List<TrackMetadataDto> searchFast(SearchQueryDto query) {
-        return doSearch(query, true);
+        return doSearch(query, true, NO_OP_LISTENER);
     }
 
 
-    private void sort(List<TrackMetadataDto> songs, ArtistsTitle artistTitle) {
+    private List<TrackMetadataDto> rank(List<TrackMetadataDto> songs, ArtistsTitle artistTitle) {
         final TrackMetadataComparator comparator = new TrackMetadataComparator(artistTitle, 70);
-        songs.sort(comparator);
+        return topK(songs, comparator.reversed(), resultMaxSize);
     }
 
 }
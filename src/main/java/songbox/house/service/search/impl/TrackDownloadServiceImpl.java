@@ -9,6 +9,7 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import songbox.house.converter.TrackDtoConverter;
+import songbox.house.domain.dto.LazyContentTrackDto;
 import songbox.house.domain.dto.request.SaveSongsDto;
 import songbox.house.domain.dto.request.SearchQueryDto;
 import songbox.house.domain.dto.request.SearchRequestDto;
@@ -18,24 +19,32 @@ import songbox.house.domain.dto.response.TrackMetadataDto;
 import songbox.house.domain.entity.SearchHistory;
 import songbox.house.domain.entity.Track;
 import songbox.house.exception.NotExistsException;
+import songbox.house.service.ArtworkService;
+import songbox.house.service.TrackContentStore;
 import songbox.house.service.TrackService;
+import songbox.house.service.UserService;
 import songbox.house.service.search.DownloadServiceFacade;
 import songbox.house.service.search.SearchHistoryService;
 import songbox.house.service.search.TrackDownloadService;
 import songbox.house.util.ArtistsTitle;
 import songbox.house.util.Measurable;
+import songbox.house.util.SingleFlight;
 
 import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static java.util.Objects.isNull;
 import static java.util.Optional.of;
 import static java.util.Optional.ofNullable;
 import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.springframework.beans.BeanUtils.copyProperties;
 import static org.springframework.util.CollectionUtils.isEmpty;
+import static songbox.house.util.StringUtils.normalize;
 
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
@@ -44,19 +53,32 @@ import static org.springframework.util.CollectionUtils.isEmpty;
 @Slf4j
 public class TrackDownloadServiceImpl implements TrackDownloadService {
 
+    private static final String URI_KEY_PREFIX = "uri:";
+
     SearchHistoryService searchHistoryService;
     DownloadServiceFacade downloadServiceFacade;
     TrackService trackService;
     TrackDtoConverter trackDtoConverter;
+    ArtworkService artworkService;
+    TrackContentStore trackContentStore;
+    UserService userService;
+    // concurrent downloads of the same track share one download
+    SingleFlight<String, Optional<TrackDto>> inFlightDownloads = new SingleFlight<>();
 
     @Override
     @Measurable
     public Optional<TrackDto> searchAndDownload(final SearchRequestDto searchRequest) {
+        return searchAndDownload(searchRequest, null);
+    }
+
+    @Override
+    @Measurable
+    public Optional<TrackDto> searchAndDownload(final SearchRequestDto searchRequest, @Nullable final Long ownerId) {
         final ArtistsTitle artistsTitle = getArtistsTitle(searchRequest);
         final String authors = artistsTitle.getArtists();
         final String title = artistsTitle.getTitle();
         return searchAndDownload(new SearchQueryDto(authors + " - " + title), downloadServiceFacade::download,
-                searchRequest.getCollectionId(), null, searchRequest.getGenres(), artistsTitle);
+                searchRequest.getCollectionId(), ownerId, searchRequest.getGenres(), artistsTitle);
     }
 
     @Override
@@ -76,14 +98,38 @@ public class TrackDownloadServiceImpl implements TrackDownloadService {
 
         final SearchHistory searchHistory = createSearchHistory(authors, title);
 
-        return ofNullable(trackService.findByArtistAndTitle(authors, title))
-                .map(fromDB -> {
-                    log.debug("Found track in db, not perform searching.");
-                    searchHistoryService.saveSuccess(searchHistory, fromDB, true);
-                    return of(trackDtoConverter.toDto(fromDB));
-                })
-                .orElseGet(() -> downloadFunction.apply(metadata)
-                        .map(track -> saveTrack(track, collectionId, ownerId, genres)));
+        final String key = getDownloadKey(authors, title, collectionId, ownerId);
+        return downloadOnce(key, () ->
+                ofNullable(trackService.findByArtistAndTitle(authors, title))
+                        .map(fromDB -> {
+                            log.debug("Found track in db, not perform searching.");
+                            searchHistoryService.saveSuccess(searchHistory, fromDB, true);
+                            return of(trackDtoConverter.toDto(fromDB));
+                        })
+                        .orElseGet(() -> downloadFunction.apply(metadata)
+                                .map(track -> saveTrack(track, collectionId, ownerId, genres))),
+                () -> ofNullable(trackService.findByArtistAndTitle(authors, title))
+                        .ifPresent(fromDB -> searchHistoryService.saveSuccess(searchHistory, fromDB, true)));
+    }
+
+    /**
+     * The track is looked up in the db inside the flight and saved in the own transaction before the flight ends,
+     * so the callers which come after it find the track in the db. The callers which joined the flight get the
+     * result as if it was found in the db, {@code onJoined} is called for them when the flight succeeded.
+     */
+    private Optional<TrackDto> downloadOnce(String key, Supplier<Optional<TrackDto>> download, Runnable onJoined) {
+        final AtomicBoolean executed = new AtomicBoolean();
+        final Optional<TrackDto> track = inFlightDownloads.execute(key, () -> {
+            executed.set(true);
+            return download.get();
+        });
+        if (!executed.get()) {
+            log.debug("Joined in-flight download of {}", key);
+            if (track.isPresent()) {
+                onJoined.run();
+            }
+        }
+        return track;
     }
 
     @Override
@@ -92,16 +138,8 @@ public class TrackDownloadServiceImpl implements TrackDownloadService {
         final ArtistsTitle artistsTitle = getArtistsTitle(searchRequest);
         final String authors = artistsTitle.getArtists().trim();
         final String title = artistsTitle.getTitle().trim();
-
-        final SearchHistory searchHistory = createSearchHistory(authors, title);
-
-        final Track fromDb = trackService.findByArtistAndTitle(authors, title);
-        if (fromDb != null) {
-            log.debug("Found track in db, not perform searching.");
-            searchHistoryService.saveSuccess(searchHistory, fromDb, true);
-        } else {
-            downloadAndSaveTrack(searchRequest, authors, title);
-        }
+        searchAndDownload(new SearchQueryDto(authors + " - " + title), downloadServiceFacade::download,
+                searchRequest.getCollectionId(), null, searchRequest.getGenres(), ArtistsTitle.of(authors, title));
     }
 
 
@@ -130,31 +168,45 @@ public class TrackDownloadServiceImpl implements TrackDownloadService {
                 .orElseThrow(() -> new NotExistsException("Exception during track downloading"));
     }
 
+    /**
+     * The song is picked by the user, so it's downloaded even if the track with the same name exists. The download is
+     * shared only by the callers saving the song to the same collection of the same user, so every caller gets the
+     * track in own collection.
+     */
     private Optional<TrackDto> downloadOne(Long collectionId, SongDto songDto) {
         TrackMetadataDto trackMetadataDto = fromSongDto(songDto);
-        final Optional<TrackDto> trackDto = downloadServiceFacade.download(trackMetadataDto);
-        trackDto.map(trackDtoConverter::toEntity)
-                .ifPresent(track -> trackService.save(track, songDto.getGenres(), collectionId));
-        return trackDto;
+        final String key = URI_KEY_PREFIX + userService.getCurrentUser().getUserId() + ":" + collectionId + ":"
+                + songDto.getUri();
+        return downloadOnce(key, () -> downloadServiceFacade.download(trackMetadataDto)
+                .map(track -> saveTrack(track, collectionId, null, songDto.getGenres())), () -> {});
     }
 
+    /**
+     * @return the track which content is read from the store, the downloaded content is released
+     */
     private TrackDto saveTrack(TrackDto trackDto, Long collectionId, @Nullable Long ownerId, Set<String> genres) {
         final Track track = trackDtoConverter.toEntity(trackDto);
-        if (isNull(ownerId)) {
-            trackService.save(track, genres, collectionId);
-        } else {
-            trackService.save(track, genres, collectionId, ownerId);
-        }
-        return trackDto;
+        final Track saved = isNull(ownerId)
+                ? trackService.save(track, genres, collectionId)
+                : trackService.save(track, genres, collectionId, ownerId);
+        attachArtworkWhenFound(saved);
+
+        final TrackDto stored = new LazyContentTrackDto(trackContentStore.open(track.getContent()),
+                trackDto.getSizeBytes());
+        copyProperties(trackDto, stored, "content");
+        LazyContentTrackDto.release(trackDto);
+        return stored;
     }
 
-    //TODO refactor
-    private Optional<TrackDto> downloadAndSaveTrack(final SearchRequestDto searchRequest, String authors,
-            String title) {
-        final Optional<TrackDto> trackDto = downloadServiceFacade.download(new SearchQueryDto(authors + " - " + title));
-        trackDto.map(trackDtoConverter::toEntity)
-                .ifPresent(track -> trackService.save(track, searchRequest.getGenres(), searchRequest.getCollectionId()));
-        return trackDto;
+    /**
+     * Downloads don't wait for the artwork, the saved track gets it when the lookup finishes
+     */
+    private void attachArtworkWhenFound(Track track) {
+        if (isBlank(track.getArtworkUrl())) {
+            final Long trackId = track.getTrackId();
+            artworkService.searchAsync(track.getAuthorsStr() + " - " + track.getTitle())
+                    .thenAccept(artworkUrl -> artworkUrl.ifPresent(url -> trackService.setArtworkUrl(trackId, url)));
+        }
     }
 
     private TrackMetadataDto fromSongDto(SongDto songDto) {
@@ -168,6 +220,15 @@ public class TrackDownloadServiceImpl implements TrackDownloadService {
         return trackMetadataDto;
     }
 
+    /**
+     * The download is shared only by the callers saving the track to the same collection of the same user, the
+     * caller without the owner saves it for the current user
+     */
+    private String getDownloadKey(String authors, String title, Long collectionId, @Nullable Long ownerId) {
+        final Long userId = isNull(ownerId) ? userService.getCurrentUser().getUserId() : ownerId;
+        return userId + ":" + collectionId + ":" + normalize(authors) + " - " + normalize(title);
+    }
+
     private SearchHistory createSearchHistory(final String authors, final String title) {
         final SearchHistory searchHistory = new SearchHistory();
         searchHistory.setArtists(authors);
@@ -16,6 +16,7 @@ import songbox.house.domain.entity.SearchHistory;
 import songbox.house.domain.entity.TrackListPattern;
 import songbox.house.exception.ParsingException;
 import songbox.house.repository.TrackListPatternRepository;
+import songbox.house.service.search.DownloadJobService;
 import songbox.house.service.search.SearchHistoryService;
 import songbox.house.service.search.TrackDownloadService;
 import songbox.house.service.search.TrackListSearchService;
@@ -26,6 +27,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
+import static java.util.stream.Collectors.toList;
+
 @Service
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 @AllArgsConstructor
@@ -36,6 +39,7 @@ public class TrackListSearchServiceImpl implements TrackListSearchService {
     TrackListPatternRepository patternRepository;
     TrackDownloadService trackDownloadService;
     SearchHistoryService searchHistoryService;
+    DownloadJobService downloadJobService;
 
     @Override
     public SearchAndDownloadResponseDto searchAndDownloadTrackList(final TrackListSearchRequestDto requestDto) {
@@ -77,10 +81,11 @@ public class TrackListSearchServiceImpl implements TrackListSearchService {
         final TrackListParsingResultDto parsingResult =
                 TrackListParser.parseTrackList(requestDto.getTrackList(), pattern.getValue(), requestDto.getSeparator());
 
-        parsingResult.getArtistTitles().forEach(artistTitleDto -> {
-            final SearchRequestDto searchRequestDto = createSearchRequestDto(artistTitleDto, requestDto.getGenres(), requestDto.getCollectionId());
-            trackDownloadService.searchAndDownloadAsync(searchRequestDto);
-        });
+        final List<SearchRequestDto> searchRequests = parsingResult.getArtistTitles().stream()
+                .map(artistTitleDto -> createSearchRequestDto(artistTitleDto, requestDto.getGenres(),
+                        requestDto.getCollectionId()))
+                .collect(toList());
+        downloadJobService.submit("Track list", searchRequests);
     }
 
     private SearchRequestDto createSearchRequestDto(final ArtistsTitle artistTitle, final Set<String> genres,
@@ -0,0 +1,139 @@
+package songbox.house.service.search.source;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import songbox.house.util.ExecutorUtil;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Own bounded pool of one search source, so the slow source can't occupy the threads of the others. The pool accepts
+ * at most {@code threads + queueDepth} calls, the calls over it are handled by the {@link RejectionPolicy}.
+ */
+public class Bulkhead {
+
+    public enum RejectionPolicy {
+        /**
+         * Skip the source for this search when its pool and queue are full
+         */
+        ABORT,
+        /**
+         * Call the source in the searching thread, the search waits for it regardless of the timeout
+         */
+        CALLER_RUNS
+    }
+
+    private final String name;
+    private final RejectionPolicy rejectionPolicy;
+    private final ExecutorService pool;
+    private final ExecutorService executor = new BoundedExecutor();
+    private final Semaphore permits;
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public Bulkhead(String name, int threads, int queueDepth, RejectionPolicy rejectionPolicy,
+            MeterRegistry meterRegistry) {
+        this.name = name;
+        this.rejectionPolicy = rejectionPolicy;
+        this.permits = new Semaphore(threads + queueDepth);
+        this.pool = ExecutorServiceMetrics.monitor(meterRegistry, ExecutorUtil.createExecutorService(threads),
+                "search." + name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public int getQueueSize() {
+        return Math.max(0, accepted.get() - active.get());
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void reject(Runnable task) {
+        rejected.incrementAndGet();
+        if (rejectionPolicy == RejectionPolicy.CALLER_RUNS && !pool.isShutdown()) {
+            task.run();
+        } else {
+            throw new RejectedExecutionException("Bulkhead " + name + " is full");
+        }
+    }
+
+    private void run(Runnable task) {
+        active.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            active.decrementAndGet();
+            accepted.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private class BoundedExecutor extends AbstractExecutorService {
+
+        @Override
+        public void execute(Runnable task) {
+            if (!permits.tryAcquire()) {
+                reject(task);
+                return;
+            }
+
+            accepted.incrementAndGet();
+            try {
+                pool.execute(() -> run(task));
+            } catch (RejectedExecutionException e) {
+                accepted.decrementAndGet();
+                permits.release();
+                reject(task);
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            pool.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return pool.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return pool.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return pool.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return pool.awaitTermination(timeout, unit);
+        }
+    }
+}
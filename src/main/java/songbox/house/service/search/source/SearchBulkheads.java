@@ -0,0 +1,63 @@
+package songbox.house.service.search.source;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import songbox.house.service.search.SearchService;
+import songbox.house.service.search.source.Bulkhead.RejectionPolicy;
+
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Bulkhead per search source. Defaults are {@code songbox.house.search.bulkhead.(threads|queue|rejection)}, every
+ * one can be overridden for the source by {@code songbox.house.search.bulkhead.<SourceName>.(threads|queue|rejection)}
+ */
+@Component
+@Slf4j
+public class SearchBulkheads {
+
+    private static final String PREFIX = "songbox.house.search.bulkhead.";
+
+    private final Map<String, Bulkhead> bulkheads;
+
+    public SearchBulkheads(List<SearchService> searchServices, Environment environment, MeterRegistry meterRegistry,
+            @Value("${songbox.house.search.bulkhead.threads:${songbox.house.search.threads:2}}") Integer threads,
+            @Value("${songbox.house.search.bulkhead.queue:10}") Integer queueDepth,
+            @Value("${songbox.house.search.bulkhead.rejection:ABORT}") RejectionPolicy rejectionPolicy) {
+        this.bulkheads = searchServices.stream()
+                .map(SearchSources::getName)
+                .distinct()
+                .map(name -> {
+                    final Bulkhead bulkhead = new Bulkhead(name,
+                            environment.getProperty(PREFIX + name + ".threads", Integer.class, threads),
+                            environment.getProperty(PREFIX + name + ".queue", Integer.class, queueDepth),
+                            environment.getProperty(PREFIX + name + ".rejection", RejectionPolicy.class,
+                                    rejectionPolicy),
+                            meterRegistry);
+                    log.info("Created search bulkhead {}", name);
+                    return bulkhead;
+                })
+                .collect(toMap(Bulkhead::getName, identity()));
+    }
+
+    public Bulkhead get(SearchService searchService) {
+        return bulkheads.get(SearchSources.getName(searchService));
+    }
+
+    public Collection<Bulkhead> getAll() {
+        return bulkheads.values();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkheads.values().forEach(Bulkhead::shutdown);
+    }
+}
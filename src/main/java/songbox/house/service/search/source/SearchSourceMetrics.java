@@ -0,0 +1,72 @@
+package songbox.house.service.search.source;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Search latency and results of every source, tagged by the source name, and the gauges of the source bulkheads
+ */
+@Component
+public class SearchSourceMetrics {
+
+    private static final String SOURCE = "source";
+    private static final String OUTCOME = "outcome";
+
+    private final MeterRegistry meterRegistry;
+
+    public SearchSourceMetrics(MeterRegistry meterRegistry, SearchBulkheads searchBulkheads) {
+        this.meterRegistry = meterRegistry;
+        searchBulkheads.getAll().forEach(this::registerBulkhead);
+    }
+
+    public void onAnswer(String source, long latencyMs, int songsCount) {
+        latency(source, "success").record(latencyMs, MILLISECONDS);
+        meterRegistry.counter("songbox.search.source.results", SOURCE, source,
+                "result", songsCount > 0 ? "hit" : "empty")
+                .increment();
+    }
+
+    public void onFailure(String source, long latencyMs) {
+        latency(source, "failure").record(latencyMs, MILLISECONDS);
+    }
+
+    public void onTimeout(String source, long timeoutMs) {
+        latency(source, "timeout").record(timeoutMs, MILLISECONDS);
+    }
+
+    /**
+     * @param reason breaker_open or rejected
+     */
+    public void onSkipped(String source, String reason) {
+        meterRegistry.counter("songbox.search.source.skipped", SOURCE, source, "reason", reason).increment();
+    }
+
+    public void onHedged(String source) {
+        meterRegistry.counter("songbox.search.source.hedged", SOURCE, source).increment();
+    }
+
+    private Timer latency(String source, String outcome) {
+        return Timer.builder("songbox.search.source.latency")
+                .tag(SOURCE, source)
+                .tag(OUTCOME, outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void registerBulkhead(Bulkhead bulkhead) {
+        Gauge.builder("songbox.search.bulkhead.active", bulkhead, Bulkhead::getActiveCount)
+                .tag(SOURCE, bulkhead.getName())
+                .register(meterRegistry);
+        Gauge.builder("songbox.search.bulkhead.queue", bulkhead, Bulkhead::getQueueSize)
+                .tag(SOURCE, bulkhead.getName())
+                .register(meterRegistry);
+        FunctionCounter.builder("songbox.search.bulkhead.rejected", bulkhead, Bulkhead::getRejectedCount)
+                .tag(SOURCE, bulkhead.getName())
+                .register(meterRegistry);
+    }
+}
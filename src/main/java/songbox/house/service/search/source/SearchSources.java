@@ -0,0 +1,15 @@
+package songbox.house.service.search.source;
+
+import songbox.house.service.search.SearchService;
+
+import static org.springframework.util.ClassUtils.getUserClass;
+
+public final class SearchSources {
+
+    private SearchSources() {
+    }
+
+    public static String getName(SearchService searchService) {
+        return getUserClass(searchService).getSimpleName();
+    }
+}
@@ -0,0 +1,159 @@
+package songbox.house.service.search.source;
+
+import java.time.Clock;
+import java.util.Arrays;
+
+import static java.lang.Math.ceil;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Rolling error rate and latencies of the last calls to one search source. Drives the circuit breaker: the source is
+ * skipped while the breaker is open, after the cool-down one probe call is allowed (half open), which closes the
+ * breaker on success or opens it again on failure.
+ */
+public class SourceHealth {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final Clock clock;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMs;
+
+    private final boolean[] failures;
+    private final long[] latenciesMs;
+    private int calls;
+    private int position;
+
+    private State state = State.CLOSED;
+    private long openedAtMs;
+    private boolean probeInFlight;
+
+    public SourceHealth(String name, Clock clock, int windowSize, int minCalls, double failureRateThreshold,
+            long openDurationMs) {
+        this.name = name;
+        this.clock = clock;
+        this.minCalls = min(minCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMs = openDurationMs;
+        this.failures = new boolean[windowSize];
+        this.latenciesMs = new long[windowSize];
+    }
+
+    /**
+     * @return true if the source may be called now, in this case the call result should be reported by
+     * {@link #onSuccess(long)}, {@link #onFailure(long)} or {@link #onCancelled()}
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case OPEN:
+                if (clock.millis() - openedAtMs < openDurationMs) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            case HALF_OPEN:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess(long latencyMs) {
+        record(false, latencyMs);
+        if (state == State.HALF_OPEN) {
+            close();
+        }
+    }
+
+    public synchronized void onFailure(long latencyMs) {
+        record(true, latencyMs);
+        if (state == State.HALF_OPEN || calls >= minCalls && getFailureRate() >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * The call was cancelled not because of the source, nothing to record
+     */
+    public synchronized void onCancelled() {
+        probeInFlight = false;
+    }
+
+    public synchronized double getFailureRate() {
+        final int size = size();
+        if (size == 0) {
+            return 0;
+        }
+        int failed = 0;
+        for (int i = 0; i < size; i++) {
+            if (failures[i]) {
+                failed++;
+            }
+        }
+        return failed / (double) size;
+    }
+
+    /**
+     * @param percentile from 0 to 100
+     * @return latency percentile of the calls in the window, -1 if there were no calls
+     */
+    public synchronized long getLatencyPercentileMs(double percentile) {
+        final int size = size();
+        if (size == 0) {
+            return -1;
+        }
+        final long[] sorted = Arrays.copyOf(latenciesMs, size);
+        Arrays.sort(sorted);
+        final int index = (int) ceil(percentile / 100 * size) - 1;
+        return sorted[min(size - 1, max(0, index))];
+    }
+
+    public synchronized int getCalls() {
+        return size();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void record(boolean failure, long latencyMs) {
+        failures[position] = failure;
+        latenciesMs[position] = latencyMs;
+        position = (position + 1) % failures.length;
+        if (calls < failures.length) {
+            calls++;
+        }
+    }
+
+    private int size() {
+        return calls;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtMs = clock.millis();
+        probeInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        probeInFlight = false;
+        // start from scratch, otherwise the old failures open the breaker again right away
+        calls = 0;
+        position = 0;
+    }
+}
@@ -0,0 +1,90 @@
+package songbox.house.service.search.source;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.stream.Collectors.toList;
+
+@Component
+@Slf4j
+public class SourceHealthRegistry {
+
+    private static final double HEDGE_PERCENTILE = 95;
+
+    private final Map<String, SourceHealth> sources = new ConcurrentHashMap<>();
+
+    private final Clock clock;
+    private final Integer windowSize;
+    private final Integer minCalls;
+    private final Double failureRateThreshold;
+    private final Long openDurationMs;
+    private final Boolean hedgeEnabled;
+    private final Double hedgeFactor;
+
+    public SourceHealthRegistry(Clock clock,
+            @Value("${songbox.house.search.breaker.window:50}") Integer windowSize,
+            @Value("${songbox.house.search.breaker.min_calls:10}") Integer minCalls,
+            @Value("${songbox.house.search.breaker.failure_rate:0.5}") Double failureRateThreshold,
+            @Value("${songbox.house.search.breaker.open.ms:60000}") Long openDurationMs,
+            @Value("${songbox.house.search.hedge.enabled:true}") Boolean hedgeEnabled,
+            @Value("${songbox.house.search.hedge.factor:3}") Double hedgeFactor) {
+        this.clock = clock;
+        this.windowSize = windowSize;
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMs = openDurationMs;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeFactor = hedgeFactor;
+    }
+
+    public SourceHealth get(String sourceName) {
+        return sources.computeIfAbsent(sourceName, name ->
+                new SourceHealth(name, clock, windowSize, minCalls, failureRateThreshold, openDurationMs));
+    }
+
+    public Collection<SourceHealth> getAll() {
+        return sources.values();
+    }
+
+    /**
+     * The source is hedged when its p95 latency is {@code hedgeFactor} times higher than the median p95 of the other
+     * sources: if it has not answered in that median time, the same search is sent to it once more and the first
+     * answer wins.
+     *
+     * @return delay after which the hedged call should be sent, empty if the source shouldn't be hedged
+     */
+    public OptionalLong getHedgeDelayMs(String sourceName) {
+        if (!hedgeEnabled) {
+            return OptionalLong.empty();
+        }
+        final SourceHealth source = get(sourceName);
+        if (source.getCalls() < minCalls) {
+            return OptionalLong.empty();
+        }
+
+        final List<Long> othersP95 = sources.values().stream()
+                .filter(other -> other != source && other.getCalls() >= minCalls)
+                .map(other -> other.getLatencyPercentileMs(HEDGE_PERCENTILE))
+                .sorted()
+                .collect(toList());
+        if (othersP95.isEmpty()) {
+            return OptionalLong.empty();
+        }
+
+        final long medianP95 = othersP95.get(othersP95.size() / 2);
+        final long sourceP95 = source.getLatencyPercentileMs(HEDGE_PERCENTILE);
+        if (sourceP95 > hedgeFactor * medianP95) {
+            log.debug("Source {} p95 {}ms is much higher than others {}ms, hedging", sourceName, sourceP95, medianP95);
+            return OptionalLong.of(medianP95);
+        }
+        return OptionalLong.empty();
+    }
+}
@@ -4,10 +4,12 @@ import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import songbox.house.client.YoutubeClient;
+import songbox.house.domain.dto.LazyContentTrackDto;
 import songbox.house.domain.dto.request.SearchQueryDto;
 import songbox.house.domain.dto.response.SearchResultDto;
 import songbox.house.domain.dto.response.TrackDto;
 import songbox.house.domain.dto.response.TrackMetadataDto;
+import songbox.house.service.TrackContentSpool;
 import songbox.house.service.download.DownloadService;
 import songbox.house.service.search.youtube.YoutubeSearchService;
 import songbox.house.util.ArtistsTitle;
@@ -21,7 +23,6 @@ import static java.util.Optional.empty;
 import static java.util.Optional.ofNullable;
 import static org.apache.commons.lang3.StringUtils.substring;
 import static org.slf4j.LoggerFactory.getLogger;
-import static songbox.house.util.DownloadUtil.downloadBytes;
 import static songbox.house.util.parser.YoutubeSearchParser.parseMp3Url;
 
 @Service
@@ -33,13 +34,16 @@ public class YoutubeDownloadService implements DownloadService {
 
     private final YoutubeClient youtubeClient;
     private final YoutubeSearchService youtubeSearchService;
+    private final TrackContentSpool trackContentSpool;
     private final Integer youtubeDownloadPriority;
 
     public YoutubeDownloadService(YoutubeClient youtubeClient,
             YoutubeSearchService youtubeSearchService,
+            TrackContentSpool trackContentSpool,
             @Value("${songbox.house.youtube.download.priority:50}") Integer youtubeDownloadPriority) {
         this.youtubeClient = youtubeClient;
         this.youtubeSearchService = youtubeSearchService;
+        this.trackContentSpool = trackContentSpool;
         this.youtubeDownloadPriority = youtubeDownloadPriority;
     }
 
@@ -87,21 +91,19 @@ public class YoutubeDownloadService implements DownloadService {
 
     // format /watch?v=QsE0STLkskk
     private Optional<TrackDto> download(String videoId, TrackMetadataDto trackMetadataDto) throws IOException {
-        String html = youtubeClient.getTrackMetadata(videoId).parse().toString();
+        String html = youtubeClient.getTrackMetadata(videoId).body();
         return parseMp3Url(html).flatMap(url -> toTrackDto(url, trackMetadataDto));
     }
 
     private Optional<TrackDto> toTrackDto(String url, TrackMetadataDto trackMetadataDto) {
-        return downloadBytes(url).map(content -> {
-            TrackDto trackDto = new TrackDto();
+        // the mp3 is streamed to the spool file, not to the heap
+        return trackContentSpool.download(url).map(contentSource -> {
+            TrackDto trackDto = new LazyContentTrackDto(contentSource);
             trackDto.setArtists(trackMetadataDto.getArtistsTitle().getArtists());
             trackDto.setTitle(trackMetadataDto.getArtistsTitle().getTitle());
-            trackDto.setContent(content);
             trackDto.setDurationSec(trackMetadataDto.getDurationSec());
             trackDto.setExtension("mp3");
             trackDto.setFileName(getFilename(trackMetadataDto));
-            long sizeBytes = (long) content.length;
-            trackDto.setSizeBytes(sizeBytes);
             trackDto.setBitRate(trackMetadataDto.getBitRate());
             trackDto.setArtworkUrl(trackMetadataDto.getThumbnail());
             return trackDto;
@@ -4,10 +4,10 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.jsoup.Connection.Response;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import songbox.house.client.YoutubeClient;
+import songbox.house.client.http.HttpResponse;
 import songbox.house.domain.dto.request.SearchQueryDto;
 import songbox.house.domain.dto.response.SearchResultDto;
 import songbox.house.domain.dto.response.TrackMetadataDto;
@@ -68,8 +68,8 @@ public class YoutubeSearchServiceImpl implements YoutubeSearchService {
     private List<TrackMetadataDto> getTrackMetadataList(SearchQueryDto query) {
         if (enabled && query.isLowQuality()) {
             try {
-                Response response = client.search(query.getQuery());
-                return parseHtmlDocumentForSearch(response.parse().toString())
+                HttpResponse response = client.search(query.getQuery());
+                return parseHtmlDocumentForSearch(response.body())
                         .parallelStream()
                         .map(this::toTrackMetadata)
                         .sorted(new TrackMetadataComparator(ArtistsTitle.parse(query.getQuery()), 70))
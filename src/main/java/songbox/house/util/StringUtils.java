@@ -11,6 +11,7 @@ public final class StringUtils {
     private static final Pattern PATTERN = Pattern.compile("^(.*)(\\(\\d+\\))");
 
     private static final String WRAPPED_REGEX = "\\[([^\\]]*)\\]";
+    private static final Pattern NOT_LETTER_OR_DIGIT = Pattern.compile("[^\\p{L}\\p{N}]+");
     private static final String AUTHORS_SEPARATOR = "(&amp;)|(&)|( x )|(,)|( vs. )|( vs )|( ft. )|( ft )|( feat. )|( feat )|( with )|( and )";
 
     public static String removeEndingNumberInBrackets(final String input) {
@@ -39,6 +40,17 @@ public final class StringUtils {
         return authors;
     }
 
+    /**
+     * Lower case, punctuation replaced with spaces, whitespaces collapsed -> "Dexter - Acid (Original Mix)" and
+     * "dexter acid original mix" are normalized to the same string
+     */
+    public static String normalize(final String input) {
+        if (input == null) {
+            return "";
+        }
+        return NOT_LETTER_OR_DIGIT.matcher(input.toLowerCase()).replaceAll(" ").trim();
+    }
+
     public static String firstCapitalLetter(String name) {
         return toUpperCase(name.charAt(0)) + name.substring(1).toLowerCase();
     }
@@ -0,0 +1,79 @@
+package songbox.house.util.compare;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToIntFunction;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Keeps only the best {@code k} items in a bounded heap instead of sorting the whole list.
+ * Items with equal rank keep their original order.
+ */
+public final class RankingUtil {
+
+    private RankingUtil() {
+    }
+
+    /**
+     * @param comparator the best item goes first
+     * @return at most {@code k} best items, best first
+     */
+    public static <T> List<T> topK(Collection<T> items, Comparator<? super T> comparator, int k) {
+        final Comparator<Ranked<T>> order = Comparator.<Ranked<T>, T>comparing(ranked -> ranked.item, comparator)
+                .thenComparingInt(ranked -> ranked.index);
+        return select(items, ranked -> 0, order, k);
+    }
+
+    /**
+     * Computes the score of every item once.
+     *
+     * @param score the lower the better
+     * @return at most {@code k} best items, best first
+     */
+    public static <T> List<T> topKByScore(Collection<T> items, ToIntFunction<? super T> score, int k) {
+        final Comparator<Ranked<T>> order = Comparator.<Ranked<T>>comparingInt(ranked -> ranked.score)
+                .thenComparingInt(ranked -> ranked.index);
+        return select(items, score, order, k);
+    }
+
+    private static <T> List<T> select(Collection<T> items, ToIntFunction<? super T> score,
+            Comparator<Ranked<T>> order, int k) {
+        if (k <= 0 || items.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // the worst of the kept items is on top of the heap
+        final PriorityQueue<Ranked<T>> heap = new PriorityQueue<>(Math.min(k, items.size()), order.reversed());
+        int index = 0;
+        for (T item : items) {
+            final Ranked<T> ranked = new Ranked<>(item, score.applyAsInt(item), index++);
+            if (heap.size() < k) {
+                heap.offer(ranked);
+            } else if (order.compare(ranked, heap.peek()) < 0) {
+                heap.poll();
+                heap.offer(ranked);
+            }
+        }
+
+        return heap.stream()
+                .sorted(order)
+                .map(ranked -> ranked.item)
+                .collect(toList());
+    }
+
+    private static final class Ranked<T> {
+        private final T item;
+        private final int score;
+        private final int index;
+
+        private Ranked(T item, int score, int index) {
+            this.item = item;
+            this.score = score;
+            this.index = index;
+        }
+    }
+}
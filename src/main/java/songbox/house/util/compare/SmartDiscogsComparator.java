@@ -4,7 +4,10 @@ import songbox.house.domain.dto.response.SongDto;
 import songbox.house.domain.dto.response.TrackMetadataDto;
 import songbox.house.util.ArtistsTitle;
 
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
 
 import static songbox.house.util.compare.LevenshteinDistanceComparator.MAX_COMPARE_RESULT;
 
@@ -21,16 +24,45 @@ public class SmartDiscogsComparator implements Comparator<TrackMetadataDto> {
         this.expectedArtistTitle = expectedArtistTitle;
     }
 
+    /**
+     * Ranks the songs scoring each of them once, unlike sorting with {@link #compare}. The bitrate penalty is applied
+     * against the best bitrate among all the songs instead of pairwise.
+     *
+     * @return at most {@code limit} best songs, best first
+     */
+    public List<TrackMetadataDto> top(Collection<TrackMetadataDto> songs, int limit) {
+        final Integer maxBitRate = songs.stream()
+                .map(TrackMetadataDto::getBitRate)
+                .filter(Objects::nonNull)
+                .max(Integer::compare)
+                .orElse(null);
+        return RankingUtil.topKByScore(songs, song -> score(song, maxBitRate), limit);
+    }
+
+    private int score(TrackMetadataDto songDto, Integer maxBitRate) {
+        int score = MAX_COMPARE_RESULT - artistTitleComparator.compare(expectedArtistTitle, songDto.getArtistsTitle());
+        score += getDurationPenalty(songDto);
+        if (maxBitRate != null && songDto.getBitRate() != null && songDto.getBitRate() < maxBitRate) {
+            score += BITRATE_DIFF_PENALTY;
+        }
+        return score;
+    }
+
+    private int getDurationPenalty(TrackMetadataDto songDto) {
+        Integer expectedDuration = expectedSongDto.getDuration();
+        if (expectedDuration > 60 /*min amount of time for applying penalty on duration difference*/) {
+            return Math.abs(songDto.getDurationSec() - expectedDuration) * DURATION_DIFF_MULTIPLIER; // duration is important so multiply it
+        }
+        return 0;
+    }
+
     @Override
     public int compare(TrackMetadataDto songDto1, TrackMetadataDto songDto2) {
         int r1 = MAX_COMPARE_RESULT - artistTitleComparator.compare(expectedArtistTitle, songDto1.getArtistsTitle());
         int r2 = MAX_COMPARE_RESULT - artistTitleComparator.compare(expectedArtistTitle, songDto2.getArtistsTitle());
 
-        Integer expectedDuration = expectedSongDto.getDuration();
-        if (expectedDuration > 60 /*min amount of time for applying penalty on duration difference*/) {
-            r1 += Math.abs(songDto1.getDurationSec() - expectedDuration) * DURATION_DIFF_MULTIPLIER; // duration is important so multiply it
-            r2 += Math.abs(songDto2.getDurationSec() - expectedDuration) * DURATION_DIFF_MULTIPLIER;
-        }
+        r1 += getDurationPenalty(songDto1);
+        r2 += getDurationPenalty(songDto2);
 
         if (songDto1.getBitRate() != null && songDto2.getBitRate() != null) {
             if (songDto1.getBitRate() > songDto2.getBitRate()) {
@@ -0,0 +1,102 @@
+package songbox.house.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import songbox.house.domain.dto.SearchReprocessResultDto;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AfterCommitEventMulticasterTest {
+
+    private static final Long BLOCKING_USER_ID = 0L;
+    private static final Long USER_ID = 1L;
+
+    private final AfterCommitEventMulticaster multicaster =
+            new AfterCommitEventMulticaster(1, 10, new SimpleMeterRegistry());
+    private final List<SearchReprocessFoundEvent> dispatched = new CopyOnWriteArrayList<>();
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        multicaster.destroy();
+    }
+
+    @Test
+    public void shouldMergeEventsOfSameUserWaitingForDispatch() throws Exception {
+        // Given
+        final CountDownLatch userDispatched = new CountDownLatch(1);
+        multicaster.addApplicationListener((ApplicationListener<ApplicationEvent>) event -> {
+            final SearchReprocessFoundEvent found = (SearchReprocessFoundEvent) event;
+            if (BLOCKING_USER_ID.equals(found.getUserId())) {
+                blocked.countDown();
+                await(release);
+            } else {
+                dispatched.add(found);
+                userDispatched.countDown();
+            }
+        });
+        multicaster.multicastEvent(event(BLOCKING_USER_ID, 0L));
+        assertTrue(blocked.await(5, SECONDS));
+
+        // When
+        multicaster.multicastEvent(event(USER_ID, 1L));
+        multicaster.multicastEvent(event(USER_ID, 2L));
+        release.countDown();
+
+        // Then
+        assertTrue(userDispatched.await(5, SECONDS));
+        multicaster.destroy();
+        assertEquals(1, dispatched.size());
+        assertEquals(USER_ID, dispatched.get(0).getUserId());
+        assertEquals(2, dispatched.get(0).getReprocessResultIdToReprocessResultMap().size());
+    }
+
+    @Test
+    public void shouldDispatchWaitingEventsOnDestroy() throws Exception {
+        // Given
+        multicaster.addApplicationListener((ApplicationListener<ApplicationEvent>) event -> {
+            final SearchReprocessFoundEvent found = (SearchReprocessFoundEvent) event;
+            if (BLOCKING_USER_ID.equals(found.getUserId())) {
+                blocked.countDown();
+                await(release);
+            } else {
+                dispatched.add(found);
+            }
+        });
+        multicaster.multicastEvent(event(BLOCKING_USER_ID, 0L));
+        assertTrue(blocked.await(5, SECONDS));
+        multicaster.multicastEvent(event(USER_ID, 1L));
+
+        // When
+        release.countDown();
+        multicaster.destroy();
+
+        // Then
+        assertEquals(1, dispatched.size());
+        assertEquals(USER_ID, dispatched.get(0).getUserId());
+    }
+
+    private SearchReprocessFoundEvent event(Long userId, Long resultId) {
+        return new SearchReprocessFoundEvent(this, userId, singletonMap(resultId, new SearchReprocessResultDto()));
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
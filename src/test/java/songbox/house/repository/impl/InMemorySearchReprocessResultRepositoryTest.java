@@ -0,0 +1,83 @@
+package songbox.house.repository.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import songbox.house.domain.dto.SearchReprocessResultDto;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+
+import static java.time.ZoneOffset.UTC;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class InMemorySearchReprocessResultRepositoryTest {
+
+    private static final long SAVED_AT_MS = 1_600_000_000_000L;
+    private static final Long USER_ID = 1L;
+    private static final Long SEARCH_REPROCESS_ID = 10L;
+    // every result is heavier, so it's evicted by the size right away
+    private static final long MAX_BYTES = 1;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Clock clock = Clock.fixed(Instant.ofEpochMilli(SAVED_AT_MS), UTC);
+
+    @Test
+    public void shouldKeepSaveTimeOfEvictedResult() throws IOException {
+        // Given
+        final InMemorySearchReprocessResultRepository repository = createRepository(folder.getRoot().getPath());
+        final String version = repository.getVersion(USER_ID);
+
+        // When
+        repository.save(USER_ID, singletonMap(SEARCH_REPROCESS_ID, new SearchReprocessResultDto()));
+
+        // Then
+        final Path file = folder.getRoot().toPath()
+                .resolve(String.valueOf(USER_ID))
+                .resolve(String.valueOf(SEARCH_REPROCESS_ID));
+        assertEquals(SAVED_AT_MS, Files.getLastModifiedTime(file).toMillis());
+        assertEquals(singleton(SEARCH_REPROCESS_ID), repository.availableIds(USER_ID));
+        assertEquals(version, repository.getVersion(USER_ID));
+    }
+
+    @Test
+    public void shouldChangeVersionWhenEvictedResultIsNotWritten() throws IOException {
+        // Given the overflow dir can't be created
+        final InMemorySearchReprocessResultRepository repository =
+                createRepository(folder.newFile("overflow").getPath());
+        final String version = repository.getVersion(USER_ID);
+
+        // When
+        repository.save(USER_ID, singletonMap(SEARCH_REPROCESS_ID, new SearchReprocessResultDto()));
+
+        // Then
+        assertNotEquals(version, repository.getVersion(USER_ID));
+    }
+
+    @Test
+    public void shouldChangeVersionWhenEvictedWithoutOverflow() {
+        // Given
+        final InMemorySearchReprocessResultRepository repository = createRepository("");
+        final String version = repository.getVersion(USER_ID);
+
+        // When
+        repository.save(USER_ID, singletonMap(SEARCH_REPROCESS_ID, new SearchReprocessResultDto()));
+
+        // Then
+        assertNotEquals(version, repository.getVersion(USER_ID));
+    }
+
+    private InMemorySearchReprocessResultRepository createRepository(String overflowDir) {
+        return new InMemorySearchReprocessResultRepository(new SimpleMeterRegistry(), clock, MAX_BYTES, 30L,
+                overflowDir);
+    }
+}
@@ -0,0 +1,107 @@
+package songbox.house.service.impl;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import songbox.house.domain.dto.TrackContentSource;
+import songbox.house.domain.entity.TrackContent;
+import songbox.house.exception.NotExistsException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static com.google.common.hash.Hashing.sha256;
+import static com.google.common.io.ByteStreams.toByteArray;
+import static java.nio.channels.Channels.newChannel;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class FileSystemTrackContentStoreTest {
+
+    private static final byte[] CONTENT = "track audio".getBytes(UTF_8);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FileSystemTrackContentStore store;
+
+    @Before
+    public void setUp() {
+        store = new FileSystemTrackContentStore(folder.getRoot().getAbsolutePath());
+    }
+
+    @Test
+    public void shouldReturnHashAndLengthOfContent() throws IOException {
+        // When
+        final TrackContent stored = store.put(new ByteArrayInputStream(CONTENT));
+
+        // Then
+        assertEquals(sha256().hashBytes(CONTENT).toString(), stored.getHash());
+        assertEquals(Long.valueOf(CONTENT.length), stored.getLength());
+        assertArrayEquals(CONTENT, read(store.get(stored.getHash())));
+    }
+
+    @Test
+    public void shouldStoreSameContentOnce() throws IOException {
+        // When
+        final TrackContent first = store.put(new ByteArrayInputStream(CONTENT));
+        final TrackContent second = store.put(new ByteArrayInputStream(CONTENT));
+
+        // Then
+        assertEquals(first.getHash(), second.getHash());
+        assertEquals(1, countFiles(folder.getRoot().toPath()));
+        assertEquals(0, countFiles(folder.getRoot().toPath().resolve("tmp")));
+    }
+
+    @Test
+    public void shouldTransferStoredContent() throws IOException {
+        // Given
+        final TrackContent stored = store.put(new ByteArrayInputStream(CONTENT));
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        // When
+        final long transferred = store.get(stored.getHash()).transferTo(newChannel(target));
+
+        // Then
+        assertEquals(CONTENT.length, transferred);
+        assertArrayEquals(CONTENT, target.toByteArray());
+    }
+
+    @Test
+    public void shouldReadLegacyContentFromDatabase() throws IOException {
+        // Given
+        final TrackContent legacy = new TrackContent();
+        legacy.setContent(CONTENT);
+
+        // When
+        final TrackContentSource source = store.open(legacy);
+
+        // Then
+        assertEquals(CONTENT.length, source.getLength());
+        assertArrayEquals(CONTENT, read(source));
+    }
+
+    @Test(expected = NotExistsException.class)
+    public void shouldFailOnMissingContent() {
+        store.get(sha256().hashBytes(CONTENT).toString());
+    }
+
+    private byte[] read(TrackContentSource source) throws IOException {
+        try (InputStream in = source.openStream()) {
+            return toByteArray(in);
+        }
+    }
+
+    private long countFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
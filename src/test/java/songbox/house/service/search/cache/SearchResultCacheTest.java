@@ -0,0 +1,107 @@
+package songbox.house.service.search.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import songbox.house.domain.dto.request.SearchQueryDto;
+import songbox.house.domain.dto.response.TrackMetadataDto;
+
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SearchResultCacheTest {
+
+    private final SearchResultCache cache = new SearchResultCache(new SimpleMeterRegistry(), 10, 60, 10, 10);
+
+    @Test
+    public void shouldNotShareCachedSongs() {
+        // Given
+        final SearchQueryKey key = SearchQueryKey.of(new SearchQueryDto("artist - title"), false, false);
+        final TrackMetadataDto song = new TrackMetadataDto();
+        song.setThumbnail("original");
+        cache.put(key, singletonList(song));
+
+        // When
+        song.setThumbnail("changed after put");
+        cache.get(key).get().get(0).setThumbnail("changed after get");
+
+        // Then
+        final List<TrackMetadataDto> cached = cache.get(key).get();
+        assertEquals(1, cached.size());
+        assertEquals("original", cached.get(0).getThumbnail());
+    }
+
+    @Test
+    public void shouldNotReturnEmptyFastResultToFullSearchFallback() {
+        // Given
+        final SearchQueryDto query = new SearchQueryDto("artist - title");
+        final SearchQueryKey withoutFallback = SearchQueryKey.of(query, true, false);
+        final SearchQueryKey withFallback = SearchQueryKey.of(query, true, true);
+
+        // When
+        cache.put(withoutFallback, emptyList());
+
+        // Then
+        assertNotEquals(withoutFallback, withFallback);
+        assertTrue(cache.get(withoutFallback).isPresent());
+        assertFalse(cache.get(withFallback).isPresent());
+    }
+
+    @Test
+    public void shouldUpdateOnlyCachedCopy() {
+        // Given
+        final SearchQueryKey key = SearchQueryKey.of(new SearchQueryDto("artist - title"), false, false);
+        final TrackMetadataDto song = new TrackMetadataDto();
+        cache.put(key, singletonList(song));
+        final List<TrackMetadataDto> returned = cache.get(key).get();
+
+        // When
+        cache.update(key, songs -> {
+            songs.forEach(cached -> cached.setThumbnail("artwork"));
+            return songs;
+        });
+
+        // Then
+        assertEquals("artwork", cache.get(key).get().get(0).getThumbnail());
+        assertNull(returned.get(0).getThumbnail());
+        assertNull(song.getThumbnail());
+    }
+
+    @Test
+    public void shouldNotUpdateMissingKey() {
+        // Given
+        final SearchQueryKey key = SearchQueryKey.of(new SearchQueryDto("artist - title"), false, false);
+
+        // When
+        cache.update(key, songs -> songs);
+
+        // Then
+        assertFalse(cache.get(key).isPresent());
+    }
+
+    @Test
+    public void shouldNotReturnNotFoundResultToSearchAgain() {
+        // Given
+        final SearchQueryKey key = SearchQueryKey.of(new SearchQueryDto("artist - title"), false, false);
+
+        // When
+        cache.put(key, emptyList());
+
+        // Then
+        assertTrue(cache.get(key).isPresent());
+        assertFalse(cache.getFound(key).isPresent());
+    }
+
+    @Test
+    public void shouldIgnoreFallbackOfFullSearch() {
+        final SearchQueryDto query = new SearchQueryDto("artist - title");
+
+        assertEquals(SearchQueryKey.of(query, false, false), SearchQueryKey.of(query, false, true));
+    }
+}
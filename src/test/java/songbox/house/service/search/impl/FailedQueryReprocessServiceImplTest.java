@@ -0,0 +1,105 @@
+package songbox.house.service.search.impl;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import songbox.house.domain.dto.FailedQueryDto;
+import songbox.house.service.KafkaService;
+import songbox.house.service.search.SearchReprocessService;
+
+import java.time.Clock;
+import java.time.Instant;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static java.time.ZoneOffset.UTC;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class FailedQueryReprocessServiceImplTest {
+
+    private static final long NOW = 10_000;
+
+    private final SearchReprocessService searchReprocessService = mock(SearchReprocessService.class);
+    private final KafkaService kafkaService = mock(KafkaService.class);
+    private final FailedQueryReprocessServiceImpl service = new FailedQueryReprocessServiceImpl(
+            searchReprocessService, kafkaService, Clock.fixed(Instant.ofEpochMilli(NOW), UTC), 100, 20);
+
+    @Test
+    public void shouldKeepEarliestAttemptOfDuplicates() {
+        // Given
+        when(searchReprocessService.reprocess(1L, singleton(10L))).thenReturn(singleton(10L));
+        service.add(failedQuery(1L, 10L, 1, NOW + 1000));
+        service.add(failedQuery(1L, 10L, 2, NOW - 1000));
+
+        // When
+        service.reprocessDue();
+
+        // Then
+        verify(searchReprocessService).reprocess(1L, singleton(10L));
+        final ArgumentCaptor<FailedQueryDto> retried = ArgumentCaptor.forClass(FailedQueryDto.class);
+        verify(kafkaService).sendToFailedQueries(retried.capture());
+        assertEquals(Integer.valueOf(3), retried.getValue().getRetry());
+        assertEquals(Long.valueOf(10L), retried.getValue().getSearchReprocessId());
+    }
+
+    @Test
+    public void shouldReprocessDueQueriesOnceInBatchOfUser() {
+        // Given
+        service.add(failedQuery(1L, 10L, 0, null));
+        service.add(failedQuery(1L, 11L, 0, NOW));
+        service.add(failedQuery(1L, 12L, 0, NOW + 1000));
+        service.add(failedQuery(2L, 20L, 0, NOW - 1000));
+
+        // When
+        service.reprocessDue();
+        service.reprocessDue();
+
+        // Then
+        verify(searchReprocessService).reprocess(1L, newHashSet(10L, 11L));
+        verify(searchReprocessService).reprocess(2L, singleton(20L));
+        verifyNoMoreInteractions(searchReprocessService);
+        verify(kafkaService, never()).sendToFailedQueries(any());
+    }
+
+    @Test
+    public void shouldLeaveQueryAfterLastRetryForScheduledReprocessing() {
+        // Given
+        when(searchReprocessService.reprocess(anyLong(), anySet())).thenReturn(singleton(10L));
+        service.add(failedQuery(1L, 10L, 3, NOW));
+
+        // When
+        service.reprocessDue();
+
+        // Then
+        verify(kafkaService, never()).sendToFailedQueries(any());
+    }
+
+    @Test
+    public void shouldSkipQueryWithoutSearchReprocess() {
+        // Given
+        service.add(failedQuery(1L, null, 0, NOW));
+
+        // When
+        service.reprocessDue();
+
+        // Then
+        verifyNoMoreInteractions(searchReprocessService);
+    }
+
+    private FailedQueryDto failedQuery(Long userId, Long searchReprocessId, Integer retry, Long notBefore) {
+        final FailedQueryDto failedQuery = new FailedQueryDto();
+        failedQuery.setUserId(userId);
+        failedQuery.setSearchReprocessId(searchReprocessId);
+        failedQuery.setQuery("artist - title " + searchReprocessId);
+        failedQuery.setRetry(retry);
+        failedQuery.setNotBefore(notBefore);
+        return failedQuery;
+    }
+}
@@ -0,0 +1,128 @@
+package songbox.house.service.search.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import songbox.house.domain.entity.SearchReprocess;
+import songbox.house.domain.entity.user.UserInfo;
+import songbox.house.domain.entity.user.UserProperty;
+import songbox.house.repository.SearchReprocessRepository;
+import songbox.house.repository.SearchReprocessResultRepository;
+import songbox.house.service.KafkaService;
+import songbox.house.service.UserService;
+import songbox.house.service.search.SearchReprocessLeaseService;
+import songbox.house.service.search.SearchServiceFacade;
+
+import java.time.Clock;
+import java.util.Date;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static songbox.house.domain.entity.SearchReprocessStatus.FOUND;
+import static songbox.house.domain.entity.SearchReprocessStatus.NOT_FOUND;
+
+public class SearchReprocessServiceImplTest {
+
+    private static final Long USER_ID = 1L;
+    private static final Long SEARCH_REPROCESS_ID = 10L;
+
+    private final SearchReprocessRepository repository = mock(SearchReprocessRepository.class);
+    private final SearchReprocessResultRepository resultRepository = mock(SearchReprocessResultRepository.class);
+    private final UserService userService = mock(UserService.class);
+    private final SearchReprocessLeaseService leaseService = mock(SearchReprocessLeaseService.class);
+    private final SearchReprocessServiceImpl service = new SearchReprocessServiceImpl(repository, resultRepository,
+            mock(SearchServiceFacade.class), mock(ReprocessResultDownloader.class), userService,
+            mock(ApplicationEventPublisher.class), leaseService, mock(KafkaService.class),
+            mock(PlatformTransactionManager.class), Clock.systemUTC(), new SimpleMeterRegistry(),
+            "0 0 0 * * *", 10L, 1, 1, 1, 20, 20L, 30L);
+
+    @Test
+    public void shouldCheckResultsAfterVersionIsLost() {
+        // Given no results yet, so no version
+        when(resultRepository.getVersion(USER_ID)).thenReturn(null);
+        when(repository.findFoundIds(USER_ID)).thenReturn(emptySet());
+        when(resultRepository.availableIds(USER_ID)).thenReturn(emptySet());
+        service.availableForDownloading(USER_ID, PageRequest.of(0, 10));
+
+        // When the saved result expires with the version
+        when(repository.findFoundIds(USER_ID)).thenReturn(singleton(SEARCH_REPROCESS_ID));
+        service.availableForDownloading(USER_ID, PageRequest.of(0, 10));
+
+        // Then
+        verify(repository).setNotFound(eq(singleton(SEARCH_REPROCESS_ID)), any());
+    }
+
+    @Test
+    public void shouldNotCheckResultsOfSyncedVersion() {
+        // Given
+        when(resultRepository.getVersion(USER_ID)).thenReturn("version");
+        when(repository.findFoundIds(USER_ID)).thenReturn(singleton(SEARCH_REPROCESS_ID));
+        when(resultRepository.availableIds(USER_ID)).thenReturn(singleton(SEARCH_REPROCESS_ID));
+
+        // When
+        service.availableForDownloading(USER_ID, PageRequest.of(0, 10));
+        service.availableForDownloading(USER_ID, PageRequest.of(0, 10));
+
+        // Then
+        verify(resultRepository, times(1)).availableIds(USER_ID);
+        verify(repository, never()).setNotFound(any(), any());
+        verify(repository, times(2)).findByUserIdAndStatus(eq(USER_ID), eq(FOUND), any());
+    }
+
+    @Test
+    public void shouldCommitBatchWhileUserIsLeased() {
+        // Given
+        givenLeasedUserWithDueSearch();
+        when(leaseService.extend(eq(USER_ID), any())).thenReturn(true);
+
+        // When
+        service.reprocessAllUsers();
+
+        // Then
+        verify(repository).incrementRetryCount(any(), eq(singleton(SEARCH_REPROCESS_ID)));
+        verify(leaseService).complete(eq(USER_ID), any());
+    }
+
+    @Test
+    public void shouldNotCommitBatchAfterLeaseIsLost() {
+        // Given
+        givenLeasedUserWithDueSearch();
+        when(leaseService.extend(eq(USER_ID), any())).thenReturn(false);
+
+        // When
+        service.reprocessAllUsers();
+
+        // Then
+        verify(repository, never()).incrementRetryCount(any(), any());
+        verify(resultRepository, never()).save(any(), any());
+    }
+
+    private void givenLeasedUserWithDueSearch() {
+        final UserInfo user = mock(UserInfo.class);
+        final UserProperty userProperty = mock(UserProperty.class);
+        when(user.getUserProperty()).thenReturn(userProperty);
+        when(userProperty.isSearchReprocessEnabled()).thenReturn(true);
+        when(userService.findById(USER_ID)).thenReturn(user);
+        when(repository.findAllUsersForReprocess(eq(NOT_FOUND), any())).thenReturn(singletonList(USER_ID));
+        when(leaseService.tryAcquire(eq(USER_ID), any())).thenReturn(true);
+
+        final SearchReprocess searchReprocess = new SearchReprocess();
+        searchReprocess.setId(SEARCH_REPROCESS_ID);
+        searchReprocess.setUserId(USER_ID);
+        searchReprocess.setSearchQuery("artist - title");
+        searchReprocess.setGenres("");
+        searchReprocess.setNextAttemptAt(new Date(0));
+        when(repository.findDue(eq(USER_ID), eq(NOT_FOUND), any(), any(), any(), any()))
+                .thenReturn(singletonList(searchReprocess));
+    }
+}
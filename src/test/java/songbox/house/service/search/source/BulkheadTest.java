@@ -0,0 +1,77 @@
+package songbox.house.service.search.source;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import songbox.house.service.search.source.Bulkhead.RejectionPolicy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BulkheadTest {
+
+    @Test
+    public void shouldRejectWhenThreadsAndQueueAreBusy() throws Exception {
+        // Given
+        final Bulkhead bulkhead = new Bulkhead("source", 1, 1, RejectionPolicy.ABORT,
+                new SimpleMeterRegistry());
+        final ExecutorService executor = bulkhead.getExecutor();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        // When
+        executor.submit(() -> {
+            started.countDown();
+            release.await(5, SECONDS);
+            return null;
+        });
+        assertTrue(started.await(5, SECONDS));
+        executor.submit(() -> null);
+
+        // Then
+        try {
+            executor.submit(() -> null);
+            fail("Third call should be rejected");
+        } catch (RejectedExecutionException e) {
+            assertEquals(1, bulkhead.getActiveCount());
+            assertEquals(1, bulkhead.getQueueSize());
+            assertEquals(1, bulkhead.getRejectedCount());
+        } finally {
+            release.countDown();
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldRunInCallerWhenThreadsAndQueueAreBusy() throws Exception {
+        // Given
+        final Bulkhead bulkhead = new Bulkhead("source", 1, 0, RejectionPolicy.CALLER_RUNS,
+                new SimpleMeterRegistry());
+        final ExecutorService executor = bulkhead.getExecutor();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // When
+            executor.submit(() -> {
+                started.countDown();
+                release.await(5, SECONDS);
+                return null;
+            });
+            assertTrue(started.await(5, SECONDS));
+            final Thread caller = executor.submit(Thread::currentThread).get(5, SECONDS);
+
+            // Then
+            assertEquals(Thread.currentThread(), caller);
+            assertEquals(1, bulkhead.getRejectedCount());
+        } finally {
+            release.countDown();
+            bulkhead.shutdown();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package songbox.house.service.search.source;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SourceHealthTest {
+
+    private final TestClock clock = new TestClock();
+
+    @Test
+    public void shouldOpenBreakerWhenFailureRateExceeded() {
+        // Given
+        final SourceHealth health = new SourceHealth("source", clock, 10, 4, 0.5, 1000);
+
+        // When
+        health.onSuccess(10);
+        health.onSuccess(10);
+        health.onFailure(10);
+        health.onFailure(10);
+
+        // Then
+        assertEquals(SourceHealth.State.OPEN, health.getState());
+        assertFalse(health.tryAcquire());
+    }
+
+    @Test
+    public void shouldAllowSingleProbeAfterCoolDown() {
+        // Given
+        final SourceHealth health = new SourceHealth("source", clock, 10, 1, 0.5, 1000);
+        health.onFailure(10);
+
+        // When
+        clock.millis += 1000;
+
+        // Then
+        assertTrue(health.tryAcquire());
+        assertFalse(health.tryAcquire());
+        health.onSuccess(10);
+        assertEquals(SourceHealth.State.CLOSED, health.getState());
+        assertEquals(0, health.getCalls());
+    }
+
+    @Test
+    public void shouldReopenBreakerWhenProbeFails() {
+        // Given
+        final SourceHealth health = new SourceHealth("source", clock, 10, 1, 0.5, 1000);
+        health.onFailure(10);
+        clock.millis += 1000;
+
+        // When
+        health.tryAcquire();
+        health.onFailure(10);
+
+        // Then
+        assertEquals(SourceHealth.State.OPEN, health.getState());
+        assertFalse(health.tryAcquire());
+    }
+
+    @Test
+    public void shouldCountLatencyPercentileOverWindow() {
+        // Given
+        final SourceHealth health = new SourceHealth("source", clock, 4, 1, 0.5, 1000);
+
+        // When
+        health.onSuccess(1000);
+        health.onSuccess(10);
+        health.onSuccess(20);
+        health.onSuccess(30);
+        health.onSuccess(40);
+
+        // Then
+        assertEquals(4, health.getCalls());
+        assertEquals(40, health.getLatencyPercentileMs(95));
+        assertEquals(20, health.getLatencyPercentileMs(50));
+    }
+
+    private static class TestClock extends Clock {
+
+        long millis;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package songbox.house.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SingleFlightTest {
+
+    @Test
+    public void shouldExecuteConcurrentCallsWithSameKeyOnce() throws Exception {
+        // Given
+        final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        final AtomicInteger executions = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        // When
+        final CompletableFuture<Integer> first = supplyAsync(() -> singleFlight.execute("query", () -> {
+            started.countDown();
+            await(release);
+            return executions.incrementAndGet();
+        }));
+        assertTrue(started.await(5, SECONDS));
+        final CompletableFuture<Integer> second = new CompletableFuture<>();
+        final Thread secondCaller = new Thread(() ->
+                second.complete(singleFlight.execute("query", executions::incrementAndGet)));
+        secondCaller.start();
+        // the second call waits for the result of the first one
+        awaitWaiting(secondCaller);
+        release.countDown();
+
+        // Then
+        assertEquals(1, (int) first.get(5, SECONDS));
+        assertEquals(1, (int) second.get(5, SECONDS));
+        assertEquals(1, executions.get());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    public void shouldExecuteAgainAfterPreviousCallFinished() {
+        // Given
+        final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        final AtomicInteger executions = new AtomicInteger();
+
+        // When
+        singleFlight.execute("query", executions::incrementAndGet);
+        final Integer result = singleFlight.execute("query", executions::incrementAndGet);
+
+        // Then
+        assertEquals(2, (int) result);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRethrowCallException() {
+        new SingleFlight<String, Integer>().execute("query", () -> {
+            throw new IllegalStateException();
+        });
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        final long deadline = System.nanoTime() + SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue("Second call hasn't joined the first one", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -93,4 +93,17 @@ public class StringUtilsTest {
         assertEquals(3, authors.size());
         assertThat(authors, containsInAnyOrder("dynamic duo", "shaquan", "Some artist"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldNormalizeCaseAndPunctuation() {
+        // Given
+        final String query = "  Dexter - Acid (Original Mix)!";
+
+        // When
+        final String normalized = StringUtils.normalize(query);
+
+        // Then
+        assertEquals("dexter acid original mix", normalized);
+        assertEquals(normalized, StringUtils.normalize("dexter   acid original-mix"));
+    }
+}
@@ -0,0 +1,60 @@
+package songbox.house.util.compare;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Comparator.naturalOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RankingUtilTest {
+
+    @Test
+    public void shouldKeepBestItemsInOrder() {
+        // Given
+        final List<Integer> items = asList(5, 1, 9, 3, 7, 2);
+
+        // When
+        final List<Integer> top = RankingUtil.topK(items, naturalOrder(), 3);
+
+        // Then
+        assertEquals(asList(1, 2, 3), top);
+    }
+
+    @Test
+    public void shouldScoreEveryItemOnce() {
+        // Given
+        final List<String> items = asList("ccc", "a", "bb", "dddd");
+        final AtomicInteger scored = new AtomicInteger();
+
+        // When
+        final List<String> top = RankingUtil.topKByScore(items, item -> {
+            scored.incrementAndGet();
+            return item.length();
+        }, 2);
+
+        // Then
+        assertEquals(asList("a", "bb"), top);
+        assertEquals(items.size(), scored.get());
+    }
+
+    @Test
+    public void shouldKeepOriginalOrderOfEqualItems() {
+        // Given
+        final List<String> items = asList("b1", "a1", "b2", "a2", "a3");
+
+        // When
+        final List<String> top = RankingUtil.topKByScore(items, item -> item.charAt(0), 4);
+
+        // Then
+        assertEquals(asList("a1", "a2", "a3", "b1"), top);
+    }
+
+    @Test
+    public void shouldReturnEmptyListForZeroLimit() {
+        assertTrue(RankingUtil.topK(asList(1, 2), naturalOrder(), 0).isEmpty());
+    }
+}